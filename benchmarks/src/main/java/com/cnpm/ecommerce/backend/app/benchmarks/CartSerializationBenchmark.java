@@ -0,0 +1,34 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.entity.Cart;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cart with its nested CartItem -> Product -> Category graph, as {@code GET /api/carts/{id}} returns it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int items;
+
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        cart = Fixtures.cart(items);
+    }
+
+    @Benchmark
+    public byte[] cart() throws JsonProcessingException {
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(cart);
+    }
+}
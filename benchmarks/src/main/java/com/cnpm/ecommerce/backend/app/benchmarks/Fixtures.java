@@ -0,0 +1,102 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.entity.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Detached entities shaped like the ones the APIs serialize, and a mapper configured like Spring Boot's.
+ */
+final class Fixtures {
+
+    static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private Fixtures() {
+    }
+
+    static byte[] image(int size) {
+        byte[] image = new byte[size];
+        new Random(size).nextBytes(image);
+        return image;
+    }
+
+    static Category category() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Phones");
+        category.setDescription("Smartphones and accessories");
+        category.setThumbnailUrl("/api/categories/1/thumbnail");
+        return category;
+    }
+
+    static Product product(long id, Category category, byte[] thumbnail) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setBrand("Brand");
+        product.setShortDescription("Short description of product " + id);
+        product.setDescription("A longer description of product " + id + " that the detail page shows in full.");
+        product.setPrice(new BigDecimal("199.99"));
+        product.setUnitInStock(100);
+        product.setCategory(category);
+        product.setThumbnailArr(thumbnail);
+        product.setCreatedDate(new Date());
+        product.setCreatedBy("admin");
+        return product;
+    }
+
+    static Cart cart(int items) {
+        Category category = category();
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user(0));
+        cart.setAddress("1 Nguyen Van Cu, District 5");
+        cart.setNote("Leave at the door");
+
+        List<CartItem> cartItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Product product = product(i + 1, category, null);
+            product.setThumbnailUrl("/api/products/" + (i + 1) + "/thumbnail");
+
+            CartItem cartItem = new CartItem();
+            cartItem.setId((long) i + 1);
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItems.add(cartItem);
+        }
+        cart.setCartItems(cartItems);
+        cart.setTotalCost(new BigDecimal("199.99").multiply(BigDecimal.valueOf(2L * items)));
+        return cart;
+    }
+
+    static User user(int profilePictureBytes) {
+        Role role = new Role();
+        role.setCode("ROLE_EMPLOYEE");
+        role.setName("Employee");
+
+        Set<Role> roles = new HashSet<>();
+        roles.add(role);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("employee1");
+        user.setName("Nguyen Van A");
+        user.setEmail("employee1@example.com");
+        user.setPhoneNumber("0901234567");
+        user.setAddress("1 Nguyen Van Cu, District 5");
+        user.setEnabled(1);
+        user.setRoles(roles);
+        user.setProfilePictureArr(image(profilePictureBytes));
+        return user;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validation as AuthTokenFilter does it on every request: a parser built once with the decoded key,
+ * against building a parser from the Base64 secret on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String JWT_SECRET = "bezKoderSecretKey";
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        setField("jwtSecret", JWT_SECRET);
+        setField("jwtExpirationMs", 86400000);
+        jwtUtils.init();
+
+        token = Jwts.builder()
+                .setSubject("customer1")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(JWT_SECRET))
+                .compact();
+    }
+
+    @Benchmark
+    public Claims cachedParser() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parser().setSigningKey(JWT_SECRET).parseClaimsJws(token).getBody();
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtUtils.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtUtils, value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The response every write endpoint returns, including the LocalDateTime.now() each one takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageResponseBenchmark {
+
+    @Benchmark
+    public MessageResponse create() {
+        return new MessageResponse("Create product successfully!", HttpStatus.CREATED, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] createAndSerialize() throws JsonProcessingException {
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(
+                new MessageResponse("Create product successfully!", HttpStatus.CREATED, LocalDateTime.now()));
+    }
+}
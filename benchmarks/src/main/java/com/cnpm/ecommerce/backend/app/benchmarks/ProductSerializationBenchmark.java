@@ -0,0 +1,51 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.entity.Product;
+import com.cnpm.ecommerce.backend.app.mapper.ProductMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.Base64Utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A product with its thumbnail inlined as Base64, as {@code GET /api/products/{id}} returns it, against the
+ * URL-only entity and the listing summary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"10000", "100000"})
+    private int thumbnailBytes;
+
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product(1L, Fixtures.category(), Fixtures.image(thumbnailBytes));
+    }
+
+    @Benchmark
+    public byte[] inlineBase64Thumbnail() throws JsonProcessingException {
+        product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+        product.setThumbnailUrl(null);
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] thumbnailUrl() throws JsonProcessingException {
+        product.setThumbnail(null);
+        product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(ProductMapper.mapToProductSummary(product));
+    }
+}
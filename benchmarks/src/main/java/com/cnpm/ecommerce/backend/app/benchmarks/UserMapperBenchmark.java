@@ -0,0 +1,47 @@
+package com.cnpm.ecommerce.backend.app.benchmarks;
+
+import com.cnpm.ecommerce.backend.app.dto.CustomerDTO;
+import com.cnpm.ecommerce.backend.app.dto.EmployeeDTO;
+import com.cnpm.ecommerce.backend.app.entity.User;
+import com.cnpm.ecommerce.backend.app.mapper.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a user to its DTO, which Base64-encodes the profile picture, with and without serializing the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"0", "20000"})
+    private int profilePictureBytes;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(profilePictureBytes);
+    }
+
+    @Benchmark
+    public EmployeeDTO mapperToDTO() {
+        return UserMapper.mapperToDTO(user);
+    }
+
+    @Benchmark
+    public CustomerDTO mapperToCustomerDTO() {
+        return UserMapper.mapperToCustomerDTO(user);
+    }
+
+    @Benchmark
+    public byte[] mapperToDTOAndSerialize() throws JsonProcessingException {
+        return Fixtures.OBJECT_MAPPER.writeValueAsBytes(UserMapper.mapperToDTO(user));
+    }
+}
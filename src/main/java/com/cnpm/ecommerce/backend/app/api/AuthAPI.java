@@ -5,6 +5,7 @@ import com.cnpm.ecommerce.backend.app.dto.JwtResponse;
 import com.cnpm.ecommerce.backend.app.dto.LoginDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.service.IUserService;
+import com.cnpm.ecommerce.backend.app.service.PasswordHashingService;
 import com.cnpm.ecommerce.backend.app.utils.JwtUtils;
 import com.cnpm.ecommerce.backend.app.utils.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +14,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,14 +36,20 @@ public class AuthAPI {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateCustomer(@Validated @RequestBody LoginDTO loginDto){
+    public CompletableFuture<ResponseEntity<?>> authenticateCustomer(@Validated @RequestBody LoginDTO loginDto){
 
-        Authentication authentication = authenticationManager.authenticate(
+        return passwordHashingService.submit(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginDto.getUserName(),
-                        loginDto.getPassword()));
+                        loginDto.getPassword())))
+                .thenApply(this::toJwtResponse);
+    }
+
+    private ResponseEntity<?> toJwtResponse(Authentication authentication){
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl customerDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -63,20 +70,22 @@ public class AuthAPI {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerCustomer(@Validated @RequestBody CustomerDTO customerDto){
+    public CompletableFuture<ResponseEntity<?>> registerCustomer(@Validated @RequestBody CustomerDTO customerDto){
 
         if(customerService.existsByUserName(customerDto.getUserName())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now())));
 
         }
 
         if(customerService.existsByEmail(customerDto.getEmail())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now())));
         }
 
-        customerService.createCustomer(customerDto);
+        return passwordHashingService.encode(customerDto.getPassword(), encodedPassword -> {
+            customerService.createCustomer(customerDto, encodedPassword);
 
-        return ResponseEntity.ok(new MessageResponse("Customer registered successfully!", HttpStatus.OK, LocalDateTime.now() ));
+            return ResponseEntity.ok(new MessageResponse("Customer registered successfully!", HttpStatus.OK, LocalDateTime.now() ));
+        });
 
     }
 
@@ -5,6 +5,7 @@ import com.cnpm.ecommerce.backend.app.dto.JwtResponse;
 import com.cnpm.ecommerce.backend.app.dto.LoginDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.service.IUserService;
+import com.cnpm.ecommerce.backend.app.service.PasswordHashingService;
 import com.cnpm.ecommerce.backend.app.utils.JwtUtils;
 import com.cnpm.ecommerce.backend.app.utils.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,13 +15,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -37,14 +38,20 @@ public class AuthAdminAPI {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateEmployee(@Validated @RequestBody LoginDTO loginDto){
+    public CompletableFuture<ResponseEntity<?>> authenticateEmployee(@Validated @RequestBody LoginDTO loginDto){
 
-        Authentication authentication = authenticationManager.authenticate(
+        return passwordHashingService.submit(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginDto.getUserName(),
-                        loginDto.getPassword()));
+                        loginDto.getPassword())))
+                .thenApply(this::toJwtResponse);
+    }
+
+    private ResponseEntity<?> toJwtResponse(Authentication authentication){
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtTokenForEmployee(authentication);
 
         UserDetailsImpl employeeDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -65,26 +72,28 @@ public class AuthAdminAPI {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerEmployee(@Validated @RequestBody EmployeeDTO employeeDto, BindingResult bindingResult){
+    public CompletableFuture<ResponseEntity<?>> registerEmployee(@Validated @RequestBody EmployeeDTO employeeDto, BindingResult bindingResult){
 
         if(bindingResult.hasErrors()){
-            return new ResponseEntity<>(new MessageResponse("Invalid value for create employee", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(new MessageResponse("Invalid value for create employee", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST));
         }
 
         if(employeeService.existsByUserName(employeeDto.getUserName())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now())));
 
         }
 
         if(employeeService.existsByEmail(employeeDto.getEmail())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already use.", HttpStatus.BAD_REQUEST, LocalDateTime.now())));
 
         }
 
 
-        MessageResponse messageResponse =  employeeService.createEmployee(employeeDto);
+        return passwordHashingService.encode(employeeDto.getPassword(), encodedPassword -> {
+            MessageResponse messageResponse =  employeeService.createEmployee(employeeDto, encodedPassword);
 
-        return  new ResponseEntity<>(messageResponse, messageResponse.getStatus());
+            return  new ResponseEntity<>(messageResponse, messageResponse.getStatus());
+        });
 
     }
 
@@ -5,9 +5,10 @@ import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Cart;
 import com.cnpm.ecommerce.backend.app.service.ICartService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -19,7 +20,7 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/carts")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class CartAPI {
 
     @Autowired
@@ -30,23 +31,32 @@ public class CartAPI {
                                               @RequestParam(name = "customerId", required = false) Long customerId,
                                               @RequestParam(defaultValue = "0") int page,
                                                @RequestParam(defaultValue = "20") int limit,
-                                               @RequestParam(defaultValue = "id,ASC") String[] sort){
+                                               @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                               @RequestParam(name = "after", required = false) String after,
+                                               @RequestParam(defaultValue = "false") boolean includeTotal){
         try {
+            if(after != null) {
+                KeysetSlice<Cart> cartSlice = cartService.findAllAfter(id, customerId, CommonUtils.getFirstOrder(sort), after, limit);
+                return CommonUtils.buildKeysetResponse(cartSlice);
+            }
+
             Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<Cart> cartPage = null;
+            Slice<Cart> cartSlice = null;
 
             if(id == null && customerId == null) {
-                cartPage = cartService.findAllPageAndSort(pagingSort);
+                cartSlice = cartService.findAllPageAndSort(pagingSort, includeTotal);
             } else {
                 if(customerId == null) {
-                    cartPage = cartService.findByIdContaining(id, pagingSort);
+                    cartSlice = cartService.findByIdContaining(id, pagingSort, includeTotal);
                 } else if(id == null) {
-                    cartPage = cartService.findByCustomerIdPageAndSort(customerId, pagingSort);
+                    cartSlice = cartService.findByCustomerIdPageAndSort(customerId, pagingSort, includeTotal);
                 }
 
             }
 
-            return new ResponseEntity<>(cartPage.getContent(), HttpStatus.OK);
+            return CommonUtils.buildSliceResponse(cartSlice);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -6,8 +6,8 @@ import com.cnpm.ecommerce.backend.app.entity.CartItem;
 import com.cnpm.ecommerce.backend.app.service.ICartItemService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -19,7 +19,7 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/cartItems")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class CartItemAPI {
     @Autowired
     private ICartItemService cartItemService;
@@ -29,29 +29,24 @@ public class CartItemAPI {
                                                   @RequestParam(value = "cartId", required = false) Long cartId,
                                                   @RequestParam(defaultValue = "0") int page,
                                                   @RequestParam(defaultValue = "20") int limit,
-                                                  @RequestParam(defaultValue = "id,ASC") String[] sort){
+                                                  @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                                  @RequestParam(defaultValue = "false") boolean includeTotal){
         try {
             Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<CartItem> cartItemPage = null;
+            Slice<CartItem> cartItemSlice = null;
 
-            if (id == null) {
-                cartItemPage = cartItemService.findAllPageAndSort(pagingSort);
-            } else {
-                cartItemPage = cartItemService.findByIdContaining(id, pagingSort);
-            }
             if(id == null && cartId == null) {
-                cartItemPage = cartItemService.findAllPageAndSort(pagingSort);
+                cartItemSlice = cartItemService.findAllPageAndSort(pagingSort, includeTotal);
             } else {
                 if(cartId == null) {
-                    cartItemPage = cartItemService.findByIdContaining(id, pagingSort);
+                    cartItemSlice = cartItemService.findByIdContaining(id, pagingSort, includeTotal);
                 } else if(id == null) {
-                    cartItemPage = cartItemService.findByCartIdPageAndSort(cartId, pagingSort);
+                    cartItemSlice = cartItemService.findByCartIdPageAndSort(cartId, pagingSort, includeTotal);
                 }
 
             }
 
-
-            return new ResponseEntity<>(cartItemPage.getContent(), HttpStatus.OK);
+            return CommonUtils.buildSliceResponse(cartItemSlice);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -1,6 +1,7 @@
 package com.cnpm.ecommerce.backend.app.api;
 
 import com.cnpm.ecommerce.backend.app.dto.CategoryDTO;
+import com.cnpm.ecommerce.backend.app.dto.CategorySummaryDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Category;
 import com.cnpm.ecommerce.backend.app.service.ICategoryService;
@@ -8,6 +9,7 @@ import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -50,12 +52,20 @@ public class CategoryAPI {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> findById(@PathVariable("id") Long theId){
-        Category theCategory = categoryService.findById(theId);
+    public ResponseEntity<CategorySummaryDTO> findById(@PathVariable("id") Long theId){
+        CategorySummaryDTO theCategory = categoryService.findById(theId);
 
         return new ResponseEntity<>(theCategory, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<byte[]> findThumbnailById(@PathVariable("id") Long theId,
+                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+
+        byte[] thumbnail = categoryService.findThumbnailById(theId);
+        return CommonUtils.buildImageResponse(thumbnail, ifNoneMatch);
+    }
+
     @PostMapping("")
     public ResponseEntity<MessageResponse> createCategory(@Valid @RequestBody CategoryDTO theCategoryDto, BindingResult theBindingResult){
 
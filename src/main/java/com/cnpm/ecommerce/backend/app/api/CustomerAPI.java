@@ -3,11 +3,15 @@ package com.cnpm.ecommerce.backend.app.api;
 import com.cnpm.ecommerce.backend.app.dto.CustomerDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.User;
+import com.cnpm.ecommerce.backend.app.service.EntityCounterService.CountMode;
 import com.cnpm.ecommerce.backend.app.service.IUserService;
+import com.cnpm.ecommerce.backend.app.service.PasswordHashingService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -16,33 +20,46 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/customers")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class CustomerAPI {
 
     @Autowired
     private IUserService customerService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @GetMapping("")
     public ResponseEntity<List<User>> findAll(@RequestParam(name = "q", required = false) String userName,
                                                  @RequestParam(defaultValue = "0") int page,
                                                  @RequestParam(defaultValue = "20") int limit,
-                                                 @RequestParam(defaultValue = "id,ASC") String[] sort){
+                                                 @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                                 @RequestParam(name = "after", required = false) String after,
+                                                 @RequestParam(defaultValue = "false") boolean includeTotal){
 
         try {
 
+            if(after != null) {
+                KeysetSlice<User> customerSlice = customerService.findCustomersAfter(userName, CommonUtils.getFirstOrder(sort), after, limit);
+                return CommonUtils.buildKeysetResponse(customerSlice);
+            }
+
             Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<User> customerPage;
+            Slice<User> customerSlice;
 
             if(userName == null) {
-                customerPage = customerService.findAllPageAndSortCustomer(pagingSort);
+                customerSlice = customerService.findAllPageAndSortCustomer(pagingSort, includeTotal);
             } else {
-                customerPage = customerService.findByUserNameContainingCustomer(userName, pagingSort);
+                customerSlice = customerService.findByUserNameContainingCustomer(userName, pagingSort, includeTotal);
             }
 
-            return new ResponseEntity<>(customerPage.getContent(), HttpStatus.OK);
+            return CommonUtils.buildSliceResponse(customerSlice);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -55,15 +72,25 @@ public class CustomerAPI {
         return new ResponseEntity<>(theCustomer, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/profilePicture")
+    public ResponseEntity<byte[]> findProfilePictureById(@PathVariable("id") Long theId,
+                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+
+        byte[] profilePicture = customerService.findProfilePictureById(theId);
+        return CommonUtils.buildImageResponse(profilePicture, ifNoneMatch);
+    }
+
     @PostMapping("")
-    public ResponseEntity<MessageResponse> createCustomer(@Valid @RequestBody CustomerDTO theCustomerDto, BindingResult theBindingResult){
+    public CompletableFuture<ResponseEntity<MessageResponse>> createCustomer(@Valid @RequestBody CustomerDTO theCustomerDto, BindingResult theBindingResult){
 
         if(theBindingResult.hasErrors()){
-            return new ResponseEntity<MessageResponse>(new MessageResponse("Invalid value for create customer", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<MessageResponse>(new MessageResponse("Invalid value for create customer", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST));
         }
 
-        MessageResponse messageResponse = customerService.createCustomer(theCustomerDto);
-        return new ResponseEntity<MessageResponse>(messageResponse, messageResponse.getStatus());
+        return passwordHashingService.encode(theCustomerDto.getPassword(), encodedPassword -> {
+            MessageResponse messageResponse = customerService.createCustomer(theCustomerDto, encodedPassword);
+            return new ResponseEntity<MessageResponse>(messageResponse, messageResponse.getStatus());
+        });
     }
 
     @PutMapping("/{id}")
@@ -87,7 +114,11 @@ public class CustomerAPI {
 
 
     @GetMapping("/count")
-    public ResponseEntity<?> count(){
-        return new ResponseEntity<>(customerService.countCustomer(), HttpStatus.OK);
+    public ResponseEntity<?> count(@RequestParam(defaultValue = "cached") String mode){
+        try {
+            return new ResponseEntity<>(customerService.countCustomer(CountMode.of(mode)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 }
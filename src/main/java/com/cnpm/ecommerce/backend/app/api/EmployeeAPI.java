@@ -3,11 +3,14 @@ package com.cnpm.ecommerce.backend.app.api;
 import com.cnpm.ecommerce.backend.app.dto.EmployeeDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.User;
+import com.cnpm.ecommerce.backend.app.service.EntityCounterService.CountMode;
 import com.cnpm.ecommerce.backend.app.service.IUserService;
+import com.cnpm.ecommerce.backend.app.service.PasswordHashingService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -16,33 +19,38 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/employees")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class EmployeeAPI {
 
     @Autowired
     private IUserService employeeService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @GetMapping("")
     public ResponseEntity<List<User>> findAll(@RequestParam(name = "q", required = false) String userName,
                                               @RequestParam(defaultValue = "0") int page,
                                               @RequestParam(defaultValue = "20") int limit,
-                                              @RequestParam(defaultValue = "id,ASC") String[] sort){
+                                              @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                              @RequestParam(defaultValue = "false") boolean includeTotal){
 
         try {
 
             Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<User> employeePage;
+            Slice<User> employeeSlice;
 
             if(userName == null) {
-                employeePage = employeeService.findAllPageAndSortEmployee(pagingSort);
+                employeeSlice = employeeService.findAllPageAndSortEmployee(pagingSort, includeTotal);
             } else {
-                employeePage = employeeService.findByUserNameContainingEmployee(userName, pagingSort);
+                employeeSlice = employeeService.findByUserNameContainingEmployee(userName, pagingSort, includeTotal);
             }
 
-            return new ResponseEntity<>(employeePage.getContent(), HttpStatus.OK);
+            return CommonUtils.buildSliceResponse(employeeSlice);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -55,15 +63,25 @@ public class EmployeeAPI {
         return new ResponseEntity<>(theEmployee, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/profilePicture")
+    public ResponseEntity<byte[]> findProfilePictureById(@PathVariable("id") Long theId,
+                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+
+        byte[] profilePicture = employeeService.findProfilePictureById(theId);
+        return CommonUtils.buildImageResponse(profilePicture, ifNoneMatch);
+    }
+
     @PostMapping("")
-    public ResponseEntity<MessageResponse> createEmployee(@Valid @RequestBody EmployeeDTO theEmployeeDto, BindingResult theBindingResult){
+    public CompletableFuture<ResponseEntity<MessageResponse>> createEmployee(@Valid @RequestBody EmployeeDTO theEmployeeDto, BindingResult theBindingResult){
 
         if(theBindingResult.hasErrors()){
-            return new ResponseEntity<MessageResponse>(new MessageResponse("Invalid value for create employee", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<MessageResponse>(new MessageResponse("Invalid value for create employee", HttpStatus.BAD_REQUEST, LocalDateTime.now()), HttpStatus.BAD_REQUEST));
         }
 
-        MessageResponse messageResponse = employeeService.createEmployee(theEmployeeDto);
-        return new ResponseEntity<MessageResponse>(messageResponse, messageResponse.getStatus());
+        return passwordHashingService.encode(theEmployeeDto.getPassword(), encodedPassword -> {
+            MessageResponse messageResponse = employeeService.createEmployee(theEmployeeDto, encodedPassword);
+            return new ResponseEntity<MessageResponse>(messageResponse, messageResponse.getStatus());
+        });
     }
 
     @PutMapping("/{id}")
@@ -87,7 +105,11 @@ public class EmployeeAPI {
 
 
     @GetMapping("/count")
-    public ResponseEntity<?> count(){
-        return new ResponseEntity<>(employeeService.countEmployee(), HttpStatus.OK);
+    public ResponseEntity<?> count(@RequestParam(defaultValue = "cached") String mode){
+        try {
+            return new ResponseEntity<>(employeeService.countEmployee(CountMode.of(mode)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 }
@@ -3,11 +3,13 @@ package com.cnpm.ecommerce.backend.app.api;
 import com.cnpm.ecommerce.backend.app.dto.FeedbackDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Feedback;
+import com.cnpm.ecommerce.backend.app.service.EntityCounterService.CountMode;
 import com.cnpm.ecommerce.backend.app.service.IFeedbackService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -19,7 +21,7 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/feedbacks")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class FeedbackAPI {
 
     @Autowired
@@ -27,23 +29,32 @@ public class FeedbackAPI {
 
     @GetMapping("")
     public ResponseEntity<List<Feedback>> findAll(@RequestParam(value = "q", required = false) Integer rating,
+                                                  @RequestParam(value = "minRating", required = false) Integer minRating,
+                                                  @RequestParam(value = "maxRating", required = false) Integer maxRating,
+                                                  @RequestParam(value = "productId", required = false) Long productId,
+                                                  @RequestParam(value = "customerId", required = false) Long customerId,
                                                   @RequestParam(defaultValue = "0") int page,
                                                   @RequestParam(defaultValue = "20") int limit,
-                                                  @RequestParam(defaultValue = "id,ASC") String[] sort){
+                                                  @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                                  @RequestParam(name = "after", required = false) String after,
+                                                  @RequestParam(defaultValue = "false") boolean includeTotal){
 
         try {
 
-            Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<Feedback> feedbackPage;
-
-            if (rating == null) {
-                feedbackPage = feedbackService.findAllPageAndSort(pagingSort);
-            } else {
-                feedbackPage = feedbackService.findByRatingContaining(rating, pagingSort);
+            if(after != null) {
+                KeysetSlice<Feedback> feedbackSlice = feedbackService.findAllAfter(rating, minRating, maxRating,
+                        productId, customerId, CommonUtils.getFirstOrder(sort), after, limit);
+                return CommonUtils.buildKeysetResponse(feedbackSlice);
             }
 
-            return new ResponseEntity<>(feedbackPage.getContent(), HttpStatus.OK);
+            Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
+            Slice<Feedback> feedbackSlice = feedbackService.findAllByFilter(rating, minRating, maxRating,
+                    productId, customerId, pagingSort, includeTotal);
+
+            return CommonUtils.buildSliceResponse(feedbackSlice);
 
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -88,7 +99,11 @@ public class FeedbackAPI {
     }
 
     @GetMapping("/count")
-    public ResponseEntity<?> count(){
-        return new ResponseEntity<>(feedbackService.count(), HttpStatus.OK);
+    public ResponseEntity<?> count(@RequestParam(defaultValue = "cached") String mode){
+        try {
+            return new ResponseEntity<>(feedbackService.count(CountMode.of(mode)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 }
@@ -2,58 +2,135 @@ package com.cnpm.ecommerce.backend.app.api;
 
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.dto.ProductDTO;
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
 import com.cnpm.ecommerce.backend.app.entity.Product;
+import com.cnpm.ecommerce.backend.app.service.EntityCounterService.CountMode;
 import com.cnpm.ecommerce.backend.app.service.IProductService;
 import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = { CommonUtils.TOTAL_COUNT_HEADER, CommonUtils.NEXT_CURSOR_HEADER })
 public class ProductAPI {
 
     @Autowired
     private IProductService productService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("")
-    public ResponseEntity<List<Product>> findAll( @RequestParam(name = "q", required = false) String productName,
-                                                  @RequestParam(name = "categoryId", required = false) Long categoryId,
-                                                  @RequestParam(defaultValue = "0") int page,
-                                                  @RequestParam(defaultValue = "20") int limit,
-                                                  @RequestParam(defaultValue = "id,ASC") String[] sort){
+    public ResponseEntity<List<ProductSummaryDTO>> findAll( @RequestParam(name = "q", required = false) String productName,
+                                                            @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int limit,
+                                                            @RequestParam(defaultValue = "id,ASC") String[] sort,
+                                                            @RequestParam(name = "after", required = false) String after,
+                                                            @RequestParam(defaultValue = "false") boolean includeTotal){
 
         try {
 
+            if(after != null) {
+                KeysetSlice<ProductSummaryDTO> productSlice = productService.findSummariesAfter(productName, categoryId,
+                        CommonUtils.getFirstOrder(sort), after, limit);
+                return CommonUtils.buildKeysetResponse(productSlice);
+            }
+
             Pageable pagingSort = CommonUtils.sortItem(page, limit, sort);
-            Page<Product> productPage = null;
+            Slice<ProductSummaryDTO> productSlice = null;
 
             if(productName == null && categoryId == null) {
-                productPage = productService.findAllPageAndSort(pagingSort);
+                productSlice = productService.findAllSummaries(pagingSort, includeTotal);
             } else {
                 if(categoryId == null) {
-                    productPage = productService.findByNameContaining(productName, pagingSort);
+                    productSlice = productService.findSummariesByNameContaining(productName, pagingSort, includeTotal);
                 } else if(productName == null) {
-                    productPage = productService.findByCategoryIdPageAndSort(categoryId, pagingSort);
+                    productSlice = productService.findSummariesByCategoryId(categoryId, pagingSort, includeTotal);
                 }
 
             }
 
-            return new ResponseEntity<>(productPage.getContent(), HttpStatus.OK);
+            return CommonUtils.buildSliceResponse(productSlice);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummaryDTO>> search(@RequestParam(name = "q") String keyword,
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(defaultValue = "false") boolean includeTotal){
+
+        try {
+
+            Slice<ProductSummaryDTO> productSlice = productService.search(keyword, PageRequest.of(page, limit), includeTotal);
+            return CommonUtils.buildSliceResponse(productSlice);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSummaryDTO>> suggest(@RequestParam(name = "q") String keyword,
+                                                           @RequestParam(defaultValue = "10") int limit){
+
+        try {
+
+            List<ProductSummaryDTO> products = productService.suggest(keyword, limit);
+            return new ResponseEntity<>(products, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "false") boolean includeThumbnails){
+
+        // flushing after every product would turn each one into its own chunk on the wire
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                productService.exportProducts(includeThumbnails, product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> findById(@PathVariable("id") Long theId){
 
@@ -61,6 +138,14 @@ public class ProductAPI {
         return new ResponseEntity<>(theProduct, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<byte[]> findThumbnailById(@PathVariable("id") Long theId,
+                                                    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+
+        byte[] thumbnail = productService.findThumbnailById(theId);
+        return CommonUtils.buildImageResponse(thumbnail, ifNoneMatch);
+    }
+
     @PostMapping("")
     public ResponseEntity<MessageResponse> createProduct(@Valid @RequestBody ProductDTO theProductDto, BindingResult theBindingResult){
 
@@ -92,8 +177,12 @@ public class ProductAPI {
     }
 
     @GetMapping("/count")
-    public ResponseEntity<?> count(){
-        return new ResponseEntity<>(productService.count(), HttpStatus.OK);
+    public ResponseEntity<?> count(@RequestParam(defaultValue = "cached") String mode){
+        try {
+            return new ResponseEntity<>(productService.count(CountMode.of(mode)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
 }
@@ -0,0 +1,67 @@
+package com.cnpm.ecommerce.backend.app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+// wrap the transactional proxy so evictions happen after the write has committed
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String CATEGORIES = "categories";
+
+    public static final String PRINCIPALS = "principals";
+
+    public static final String PRODUCT_PRICES = "productPrices";
+
+    @Value("${app.cache.categories.maximum-size}")
+    private long categoriesMaximumSize;
+
+    @Value("${app.cache.categories.ttl-seconds}")
+    private long categoriesTtlSeconds;
+
+    @Value("${app.cache.principals.maximum-size}")
+    private long principalsMaximumSize;
+
+    @Value("${app.cache.principals.ttl-seconds}")
+    private long principalsTtlSeconds;
+
+    @Value("${app.cache.product-prices.maximum-size}")
+    private long productPricesMaximumSize;
+
+    @Value("${app.cache.product-prices.ttl-seconds}")
+    private long productPricesTtlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+                .maximumSize(categoriesMaximumSize)
+                .expireAfterWrite(categoriesTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+
+        cacheManager.registerCustomCache(PRINCIPALS, Caffeine.newBuilder()
+                .maximumSize(principalsMaximumSize)
+                .expireAfterWrite(principalsTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+
+        cacheManager.registerCustomCache(PRODUCT_PRICES, Caffeine.newBuilder()
+                .maximumSize(productPricesMaximumSize)
+                .expireAfterWrite(productPricesTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+
+        return cacheManager;
+    }
+}
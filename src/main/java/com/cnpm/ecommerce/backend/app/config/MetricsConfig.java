@@ -0,0 +1,28 @@
+package com.cnpm.ecommerce.backend.app.config;
+
+import com.cnpm.ecommerce.backend.app.metrics.HibernateRequestMetrics;
+import com.cnpm.ecommerce.backend.app.metrics.RequestMetricsCallableInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsCustomizer() {
+        HibernateRequestMetrics requestMetrics = new HibernateRequestMetrics();
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, requestMetrics);
+            hibernateProperties.put(AvailableSettings.INTERCEPTOR, requestMetrics);
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new RequestMetricsCallableInterceptor());
+    }
+}
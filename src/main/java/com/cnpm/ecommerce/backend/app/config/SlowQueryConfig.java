@@ -0,0 +1,38 @@
+package com.cnpm.ecommerce.backend.app.config;
+
+import com.cnpm.ecommerce.backend.app.metrics.SlowQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Times every statement at the JDBC level, so JdbcTemplate batches are covered as well as Hibernate,
+ * and hands them to {@link SlowQueryListener}. Enabled by the prod profile in place of show-sql.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.slow-query.enabled", havingValue = "true")
+public class SlowQueryConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(@Value("${app.slow-query.threshold-ms}") long thresholdMs,
+                                                                     @Value("${app.slow-query.sample-rate}") double sampleRate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new SlowQueryListener(thresholdMs, sampleRate))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -19,6 +19,8 @@ public class CartDTO extends AbstractDTO {
     private String address;
 
 
+    private Long version;
+
     private List<CartItemDTO> cartItems = new ArrayList<>();
 
     public List<CartItemDTO> getCartItems() {
@@ -30,6 +32,14 @@ public class CartDTO extends AbstractDTO {
         this.cartItems.addAll(cartItems);
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public long getCustomerId() {
         return customerId;
     }
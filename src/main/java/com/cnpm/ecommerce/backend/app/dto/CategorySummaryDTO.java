@@ -0,0 +1,39 @@
+package com.cnpm.ecommerce.backend.app.dto;
+
+/**
+ * Read-only view of a category, safe to share from the category cache. The thumbnail is served
+ * separately from {@code thumbnailUrl}.
+ */
+public final class CategorySummaryDTO {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String description;
+
+    private final String thumbnailUrl;
+
+    public CategorySummaryDTO(Long id, String name, String description, String thumbnailUrl) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+}
@@ -3,11 +3,15 @@ package com.cnpm.ecommerce.backend.app.dto;
 import com.cnpm.ecommerce.backend.app.entity.Product;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 @JsonIgnoreProperties({"product", "customerDTO"})
 public class FeedbackDTO extends AbstractDTO{
 
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
     private int rating;
 
     private Product product;
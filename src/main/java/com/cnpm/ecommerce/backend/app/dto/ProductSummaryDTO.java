@@ -0,0 +1,124 @@
+package com.cnpm.ecommerce.backend.app.dto;
+
+import com.cnpm.ecommerce.backend.app.entity.Product;
+
+import java.math.BigDecimal;
+
+public class ProductSummaryDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private BigDecimal price;
+
+    private int unitInStock;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private String thumbnailUrl;
+
+    private long ratingCount;
+
+    private Double averageRating;
+
+    public ProductSummaryDTO() {
+    }
+
+    public ProductSummaryDTO(Long id, String name, String brand, BigDecimal price, int unitInStock,
+                             Long categoryId, String categoryName, long ratingCount, long ratingSum) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.price = price;
+        this.unitInStock = unitInStock;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.ratingCount = ratingCount;
+        this.averageRating = Product.averageRating(ratingCount, ratingSum);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public int getUnitInStock() {
+        return unitInStock;
+    }
+
+    public void setUnitInStock(int unitInStock) {
+        this.unitInStock = unitInStock;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+}
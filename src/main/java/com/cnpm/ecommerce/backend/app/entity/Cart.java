@@ -24,6 +24,10 @@ public class Cart extends BaseEntity{
     @Column(name = "address")
     private String address;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "cart", orphanRemoval = true, cascade = CascadeType.ALL)
     @JsonIgnoreProperties({"cart"})
     private List<CartItem> cartItems = new ArrayList<>();
@@ -36,6 +40,14 @@ public class Cart extends BaseEntity{
         this.cartItems = cartItems;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public User getUser() { return user; }
 
     public void setUser(User user) { this.user = user; }
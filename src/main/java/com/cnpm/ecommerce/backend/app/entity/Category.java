@@ -19,11 +19,15 @@ public class Category extends BaseEntity{
 
     @Column(name = "thumbnail", length = 100000)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private byte[] thumbnailArr;
 
     @Transient
     private String thumbnail;
 
+    @Transient
+    private String thumbnailUrl;
+
     @OneToMany(mappedBy = "category", fetch = FetchType.LAZY, orphanRemoval = true, cascade = CascadeType.ALL)
     @JsonIgnoreProperties("category")
     private Set<Product> products = new HashSet<>();
@@ -52,6 +56,14 @@ public class Category extends BaseEntity{
         this.thumbnail = thumbnail;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
     public Set<Product> getProducts() {
         return products;
     }
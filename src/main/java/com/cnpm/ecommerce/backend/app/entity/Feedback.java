@@ -3,7 +3,10 @@ package com.cnpm.ecommerce.backend.app.entity;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback", indexes = {
+        @Index(name = "idx_feedback_product_rating_created", columnList = "product_id, rating, createddate"),
+        @Index(name = "idx_feedback_user_created", columnList = "user_id, createddate")
+})
 public class Feedback extends BaseEntity{
 
     @Column(name = "rating")
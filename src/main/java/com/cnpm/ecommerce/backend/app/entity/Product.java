@@ -8,7 +8,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "product")
-@JsonIgnoreProperties({"feedbacks", "thumbnailArr"})
+@JsonIgnoreProperties({"feedbacks", "thumbnailArr", "ratingSum"})
 public class Product extends BaseEntity{
 
     @Column(name = "name", nullable = false)
@@ -29,13 +29,39 @@ public class Product extends BaseEntity{
     @Column(name = "unit_in_stock")
     private int unitInStock;
 
+    // rating aggregates are maintained by FeedbackService with atomic updates, never written through the entity
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long ratingSum;
+
+    @Column(name = "rating_1_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long oneStarCount;
+
+    @Column(name = "rating_2_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long twoStarCount;
+
+    @Column(name = "rating_3_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long threeStarCount;
+
+    @Column(name = "rating_4_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long fourStarCount;
+
+    @Column(name = "rating_5_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long fiveStarCount;
+
     @Column(name = "thumbnail", length = 100000)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private byte[] thumbnailArr;
 
     @Transient
     private String thumbnail;
 
+    @Transient
+    private String thumbnailUrl;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "category_id")
     @JsonIgnoreProperties("products")
@@ -93,6 +119,26 @@ public class Product extends BaseEntity{
         this.unitInStock = unitInStock;
     }
 
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Double getAverageRating() {
+        return averageRating(ratingCount, ratingSum);
+    }
+
+    public long[] getRatingHistogram() {
+        return new long[] {oneStarCount, twoStarCount, threeStarCount, fourStarCount, fiveStarCount};
+    }
+
+    public static Double averageRating(long ratingCount, long ratingSum) {
+        return ratingCount == 0 ? null : Math.round(ratingSum * 100.0 / ratingCount) / 100.0;
+    }
+
     public byte[] getThumbnailArr() {
         return thumbnailArr;
     }
@@ -120,4 +166,12 @@ public class Product extends BaseEntity{
     public void setThumbnail(String thumbnail) {
         this.thumbnail = thumbnail;
     }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
 }
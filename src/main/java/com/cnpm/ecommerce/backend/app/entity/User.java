@@ -36,11 +36,15 @@ public class User extends BaseEntity{
 
     @Column(name = "profile_picture", length = 100000)
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private byte[] profilePictureArr;
 
     @Transient
     private String profilePicture;
 
+    @Transient
+    private String profilePictureUrl;
+
     @Column(name = "enabled")
     private int enabled;
 
@@ -123,6 +127,14 @@ public class User extends BaseEntity{
         this.profilePicture = profilePicture;
     }
 
+    public String getProfilePictureUrl() {
+        return profilePictureUrl;
+    }
+
+    public void setProfilePictureUrl(String profilePictureUrl) {
+        this.profilePictureUrl = profilePictureUrl;
+    }
+
     public int getEnabled() {
         return enabled;
     }
@@ -4,6 +4,7 @@ import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -14,6 +15,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import javax.naming.AuthenticationException;
 import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
@@ -27,6 +29,29 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
     }
 
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<Object> handleOutOfStockException(OutOfStockException ex){
+        MessageResponse messageResponse = new MessageResponse(ex.getMessage(), HttpStatus.CONFLICT, LocalDateTime.now());
+
+        return new ResponseEntity<>(messageResponse, messageResponse.getStatus());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex){
+        MessageResponse messageResponse = new MessageResponse("Resource was modified by another request, reload it and try again!",
+                HttpStatus.CONFLICT, LocalDateTime.now());
+
+        return new ResponseEntity<>(messageResponse, messageResponse.getStatus());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Object> handleRejectedExecutionException(RejectedExecutionException ex){
+        MessageResponse messageResponse = new MessageResponse("Server is busy, try again shortly!",
+                HttpStatus.SERVICE_UNAVAILABLE, LocalDateTime.now());
+
+        return ResponseEntity.status(messageResponse.getStatus()).header(HttpHeaders.RETRY_AFTER, "1").body(messageResponse);
+    }
+
     @Override
     protected ResponseEntity<Object> handleNoHandlerFoundException(NoHandlerFoundException ex, HttpHeaders headers, HttpStatus status, WebRequest request) {
         MessageResponse messageResponse = new MessageResponse(ex.getMessage(), HttpStatus.NOT_FOUND, LocalDateTime.now());
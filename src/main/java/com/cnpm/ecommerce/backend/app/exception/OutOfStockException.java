@@ -0,0 +1,24 @@
+package com.cnpm.ecommerce.backend.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class OutOfStockException extends RuntimeException{
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1086768L;
+
+    private final Long productId;
+
+    public OutOfStockException(Long productId) {
+        super("Not enough stock for product with ID=" + productId);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
@@ -1,8 +1,11 @@
 package com.cnpm.ecommerce.backend.app.mapper;
 
 import com.cnpm.ecommerce.backend.app.dto.ProductDTO;
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
 import com.cnpm.ecommerce.backend.app.entity.Product;
 
+import java.math.BigDecimal;
+
 public class ProductMapper {
 
     public static Product mapToProduct(ProductDTO productDTO) {
@@ -16,4 +19,33 @@ public class ProductMapper {
 
         return productDTO;
     }
+
+    public static ProductSummaryDTO mapToProductSummary(Product product) {
+
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        String categoryName = product.getCategory() == null ? null : product.getCategory().getName();
+
+        ProductSummaryDTO summary = new ProductSummaryDTO(product.getId(), product.getName(), product.getBrand(),
+                product.getPrice(), product.getUnitInStock(), categoryId, categoryName,
+                product.getRatingCount(), product.getRatingSum());
+        summary.setThumbnailUrl(thumbnailUrlOf(product.getId()));
+
+        return summary;
+    }
+
+    public static ProductSummaryDTO mapToProductSummary(Object[] row) {
+
+        Long categoryId = row[5] == null ? null : ((Number) row[5]).longValue();
+
+        ProductSummaryDTO summary = new ProductSummaryDTO(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                (BigDecimal) row[3], ((Number) row[4]).intValue(), categoryId, (String) row[6],
+                ((Number) row[7]).longValue(), ((Number) row[8]).longValue());
+        summary.setThumbnailUrl(thumbnailUrlOf(summary.getId()));
+
+        return summary;
+    }
+
+    public static String thumbnailUrlOf(Long productId) {
+        return "/api/products/" + productId + "/thumbnail";
+    }
 }
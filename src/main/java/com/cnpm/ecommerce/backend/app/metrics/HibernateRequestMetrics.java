@@ -0,0 +1,26 @@
+package com.cnpm.ecommerce.backend.app.metrics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Registered as both the session factory interceptor and statement inspector, see
+ * {@link com.cnpm.ecommerce.backend.app.config.MetricsConfig}.
+ */
+public class HibernateRequestMetrics extends EmptyInterceptor implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics.statementPrepared();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestMetrics.entityLoaded();
+        return false;
+    }
+}
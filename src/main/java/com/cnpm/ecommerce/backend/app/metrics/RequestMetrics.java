@@ -0,0 +1,51 @@
+package com.cnpm.ecommerce.backend.app.metrics;
+
+/**
+ * Hibernate SQL statements and entity loads of the request running on the current thread. Work outside a
+ * request, like scheduled jobs, has no current metrics and isn't counted.
+ */
+public class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    private int entityLoads;
+
+    public static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    // continues counting on the thread of a later async dispatch of the same request
+    public static void resume(RequestMetrics metrics) {
+        CURRENT.set(metrics);
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.entityLoads++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cnpm.ecommerce.backend.app.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the statements of callable async handlers, like streamed exports, which run on the MVC async
+ * executor between two dispatches of the request.
+ */
+public class RequestMetricsCallableInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        RequestMetrics metrics = RequestMetricsFilter.metricsOf(request.getNativeRequest(HttpServletRequest.class));
+        if (metrics != null) {
+            RequestMetrics.resume(metrics);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        RequestMetrics.end();
+    }
+}
@@ -0,0 +1,206 @@
+package com.cnpm.ecommerce.backend.app.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, SQL statements, entity loads and response bytes per REST handler under
+ * {@code /actuator/metrics/app.handler.*}, and flags requests that run more statements than
+ * {@code app.metrics.n-plus-one-threshold}. Async requests (streamed exports, signin and signup) are
+ * recorded on their final dispatch, timed from the start of the first one. Callable handlers running on
+ * the MVC async executor in between are counted through {@link RequestMetricsCallableInterceptor}; other
+ * threads, like the password hashing pool, aren't.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private static final String STATE_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".STATE";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.metrics.n-plus-one-threshold:20}")
+    private int nPlusOneThreshold;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestState state = (RequestState) request.getAttribute(STATE_ATTRIBUTE);
+        if (state == null) {
+            state = new RequestState(RequestMetrics.begin(), System.nanoTime());
+            request.setAttribute(STATE_ATTRIBUTE, state);
+        } else {
+            RequestMetrics.resume(state.metrics);
+        }
+
+        CountingResponse countingResponse = new CountingResponse(response);
+        state.responses.add(countingResponse);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            RequestMetrics.end();
+            if (!request.isAsyncStarted()) {
+                record(request, countingResponse.getStatus(), state, System.nanoTime() - state.start);
+            }
+        }
+    }
+
+    static RequestMetrics metricsOf(HttpServletRequest request) {
+        RequestState state = request == null ? null : (RequestState) request.getAttribute(STATE_ATTRIBUTE);
+        return state == null ? null : state.metrics;
+    }
+
+    private void record(HttpServletRequest request, int status, RequestState state, long nanos) {
+
+        RequestMetrics metrics = state.metrics;
+        String handler = handlerOf(request);
+        Tags tags = Tags.of("handler", handler);
+
+        Timer.builder("app.handler.requests")
+                .tags(tags.and("status", String.valueOf(status)))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("app.handler.statements").tags(tags)
+                .register(meterRegistry).record(metrics.getStatements());
+        DistributionSummary.builder("app.handler.entity.loads").tags(tags)
+                .register(meterRegistry).record(metrics.getEntityLoads());
+        DistributionSummary.builder("app.handler.response.bytes").tags(tags).baseUnit("bytes")
+                .register(meterRegistry).record(state.byteCount());
+
+        if (metrics.getStatements() > nPlusOneThreshold) {
+            Counter.builder("app.handler.n_plus_one").tags(tags).register(meterRegistry).increment();
+            logger.warn("{} {} ({}) ran {} SQL statements and loaded {} entities, likely an N+1",
+                    request.getMethod(), request.getRequestURI(), handler,
+                    metrics.getStatements(), metrics.getEntityLoads());
+        }
+    }
+
+    // bounded by the number of controller methods, unlike the raw URI
+    private static String handlerOf(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return "none";
+    }
+
+    // carried across the dispatches of an async request; a streamed body is written through the first dispatch's response
+    private static class RequestState {
+
+        private final RequestMetrics metrics;
+
+        private final long start;
+
+        private final List<CountingResponse> responses = new ArrayList<>(1);
+
+        RequestState(RequestMetrics metrics, long start) {
+            this.metrics = metrics;
+            this.start = start;
+        }
+
+        long byteCount() {
+            long byteCount = 0;
+            for (CountingResponse response : responses) {
+                byteCount += response.getByteCount();
+            }
+            return byteCount;
+        }
+    }
+
+    /**
+     * Counts the bytes handed to the container through {@link #getOutputStream()}, which is what the
+     * JSON message converters write to; text written through the writer (container error pages) isn't counted.
+     */
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+
+        private long byteCount;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        long getByteCount() {
+            return byteCount;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        byteCount++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        byteCount += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cnpm.ecommerce.backend.app.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements slower than the threshold at WARN and a random sample of the others at INFO, with the
+ * duration and the application method that issued them. Bound parameters are never logged.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private static final String APP_PACKAGE = "com.cnpm.ecommerce.backend.app.";
+
+    private final long thresholdMs;
+
+    private final double sampleRate;
+
+    public SlowQueryListener(long thresholdMs, double sampleRate) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        long elapsedMs = execInfo.getElapsedTime();
+        boolean slow = elapsedMs >= thresholdMs;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        String batch = execInfo.isBatch() ? " (batch of " + execInfo.getBatchSize() + ")" : "";
+        if (slow) {
+            logger.warn("Slow query took {} ms in {}{}: {}", elapsedMs, callingMethod(), batch, sql);
+        } else {
+            logger.info("Sampled query took {} ms in {}{}: {}", elapsedMs, callingMethod(), batch, sql);
+        }
+    }
+
+    // only walked for the few statements that get logged
+    private static String callingMethod() {
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith(APP_PACKAGE) && !className.startsWith(APP_PACKAGE + "metrics.")
+                    && !className.contains("$$")) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+}
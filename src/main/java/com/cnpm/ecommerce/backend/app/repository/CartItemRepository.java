@@ -3,12 +3,14 @@ package com.cnpm.ecommerce.backend.app.repository;
 import com.cnpm.ecommerce.backend.app.entity.CartItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
 
     @Query("SELECT c from CartItem c WHERE c.cart.id=?1")
     List<CartItem> findCartItemByCartID(Long cartId);
@@ -16,4 +18,17 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Page<CartItem> findById(Long id, Pageable pageable);
 
     Page<CartItem> findByCartId(Long cartId, Pageable pageable);
+
+    Slice<CartItem> findSliceBy(Pageable pageable);
+
+    Slice<CartItem> findSliceById(Long id, Pageable pageable);
+
+    Slice<CartItem> findSliceByCartId(Long cartId, Pageable pageable);
+
+    @Query("SELECT c.product.id, c.quantity FROM CartItem c WHERE c.cart.id=?1")
+    List<Object[]> findProductQuantitiesByCartId(Long cartId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.cart.id=?1")
+    int deleteByCartId(Long cartId);
 }
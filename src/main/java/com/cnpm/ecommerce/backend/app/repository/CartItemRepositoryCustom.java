@@ -0,0 +1,10 @@
+package com.cnpm.ecommerce.backend.app.repository;
+
+import com.cnpm.ecommerce.backend.app.entity.CartItem;
+
+import java.util.List;
+
+public interface CartItemRepositoryCustom {
+
+    void batchInsert(List<CartItem> cartItems);
+}
@@ -0,0 +1,45 @@
+package com.cnpm.ecommerce.backend.app.repository;
+
+import com.cnpm.ecommerce.backend.app.entity.CartItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO cart_item "
+            + "(cart_id, product_id, quantity, status, createddate, createdby, modifieddate, modifiedby) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all items in one JDBC batch. Hibernate can't batch these itself because ids come from
+     * an identity column, so the rows bypass the persistence context and are not attached to it.
+     */
+    @Override
+    public void batchInsert(List<CartItem> cartItems) {
+        if (cartItems.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, cartItems, cartItems.size(), (ps, cartItem) -> {
+            ps.setLong(1, cartItem.getCart().getId());
+            ps.setLong(2, cartItem.getProduct().getId());
+            ps.setInt(3, cartItem.getQuantity());
+            ps.setInt(4, cartItem.getStatus());
+            ps.setTimestamp(5, toTimestamp(cartItem.getCreatedDate()));
+            ps.setString(6, cartItem.getCreatedBy());
+            ps.setTimestamp(7, toTimestamp(cartItem.getModifiedDate()));
+            ps.setString(8, cartItem.getModifiedBy());
+        });
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+}
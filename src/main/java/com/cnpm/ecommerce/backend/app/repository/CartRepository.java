@@ -3,18 +3,62 @@ package com.cnpm.ecommerce.backend.app.repository;
 import com.cnpm.ecommerce.backend.app.entity.Cart;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Cart> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Cart> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT c from Cart c WHERE c.user.id=?1")
     List<Cart> findByCustomer(Long customerId);
 
+    @EntityGraph(attributePaths = "user")
     Page<Cart> findById(Long id, Pageable pageable);
 
+    @EntityGraph(attributePaths = "user")
     Page<Cart> findByUserId(Long customerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<Cart> findSliceBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<Cart> findSliceById(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<Cart> findSliceByUserId(Long customerId, Pageable pageable);
+
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.user LEFT JOIN FETCH c.cartItems ci " +
+            "LEFT JOIN FETCH ci.product p LEFT JOIN FETCH p.category WHERE c.id=?1")
+    Optional<Cart> findWithItemsById(Long id);
+
+    /**
+     * Initializes the items of already loaded carts, together with their products and categories,
+     * in one query. Paged reads call this after the page query because fetch-joining a collection
+     * there would make Hibernate paginate in memory.
+     */
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci " +
+            "LEFT JOIN FETCH ci.product p LEFT JOIN FETCH p.category WHERE c.id IN ?1")
+    List<Cart> fetchCartItems(Collection<Long> cartIds);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.user LEFT JOIN FETCH c.cartItems ci " +
+            "LEFT JOIN FETCH ci.product p LEFT JOIN FETCH p.category WHERE c.id=?1")
+    Optional<Cart> findForUpdateById(Long id);
 }
 
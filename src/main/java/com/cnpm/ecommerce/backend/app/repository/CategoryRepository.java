@@ -4,9 +4,15 @@ import com.cnpm.ecommerce.backend.app.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
    Page<Category> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     Boolean existsByName(String name);
+
+    @Query("SELECT c.thumbnailArr FROM Category c WHERE c.id=?1")
+    Optional<byte[]> findThumbnailById(Long id);
 }
@@ -1,10 +1,18 @@
 package com.cnpm.ecommerce.backend.app.repository;
 
 import com.cnpm.ecommerce.backend.app.entity.Feedback;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
-public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
-    Page<Feedback> findByRatingContaining(int rating, Pageable pageable);
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface FeedbackRepository extends JpaRepository<Feedback, Long>, JpaSpecificationExecutor<Feedback> {
+
+    // the product aggregates are adjusted by the rating read here, so concurrent writers must not read the same one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Feedback f WHERE f.id=?1")
+    Optional<Feedback> findForUpdateById(Long id);
 }
@@ -0,0 +1,195 @@
+package com.cnpm.ecommerce.backend.app.repository;
+
+import com.cnpm.ecommerce.backend.app.entity.BaseEntity;
+import com.cnpm.ecommerce.backend.app.utils.KeysetCursor;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+@Repository
+public class KeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Reads up to {@code limit} rows ordered by {@code (order.property, id)} that come after the
+     * {@code after} cursor, without an OFFSET and without a count query. An empty cursor reads the
+     * first slice. The cursor's own sort order wins over {@code order} so a client cannot change
+     * the ordering halfway through a scroll.
+     */
+    public <T extends BaseEntity> KeysetSlice<T> findSlice(Class<T> domainClass, Specification<T> spec,
+                                                           Sort.Order order, String after, int limit) {
+
+        KeysetCursor cursor = (after == null || after.isEmpty()) ? null : KeysetCursor.decode(after);
+        Sort.Order sortOrder = cursor == null ? order : cursor.getOrder();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        applySeek(domainClass, spec, cursor, sortOrder, query, root, cb);
+
+        List<T> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.fromLast(last, last.getId(), sortOrder).encode();
+        }
+
+        return new KeysetSlice<>(content, PageRequest.of(0, limit, Sort.by(sortOrder)), hasNext, nextCursor);
+    }
+
+    /**
+     * Projection variant of {@link #findSlice(Class, Specification, Sort.Order, String, int)}: selects only the
+     * columns {@code selection} returns and builds each row with {@code mapper} instead of loading entities.
+     * The id and sort key are selected after those columns to build the cursor, and {@code mapper} ignores them.
+     */
+    public <T, R> KeysetSlice<R> findSlice(Class<T> domainClass, Specification<T> spec,
+                                           Function<Root<T>, List<Selection<?>>> selection, Function<Object[], R> mapper,
+                                           Sort.Order order, String after, int limit) {
+
+        KeysetCursor cursor = (after == null || after.isEmpty()) ? null : KeysetCursor.decode(after);
+        Sort.Order sortOrder = cursor == null ? order : cursor.getOrder();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(domainClass);
+
+        List<Selection<?>> selections = new ArrayList<>(selection.apply(root));
+        int idIndex = selections.size();
+        selections.add(root.get("id"));
+        selections.add(root.get(sortOrder.getProperty()));
+        query.multiselect(selections);
+        applySeek(domainClass, spec, cursor, sortOrder, query, root, cb);
+
+        List<Object[]> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > limit;
+        List<Object[]> content = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = content.get(content.size() - 1);
+            nextCursor = KeysetCursor.fromLastValue(last[idIndex + 1], (Long) last[idIndex], sortOrder).encode();
+        }
+
+        List<R> mapped = new ArrayList<>(content.size());
+        for (Object[] row : content) {
+            mapped.add(mapper.apply(row));
+        }
+        return new KeysetSlice<>(mapped, PageRequest.of(0, limit, Sort.by(sortOrder)), hasNext, nextCursor);
+    }
+
+    private <T> void applySeek(Class<T> domainClass, Specification<T> spec, KeysetCursor cursor, Sort.Order sortOrder,
+                               CriteriaQuery<?> query, Root<T> root, CriteriaBuilder cb) {
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate filter = spec.toPredicate(root, query, cb);
+            if (filter != null) {
+                predicates.add(filter);
+            }
+        }
+        if (cursor != null) {
+            predicates.add(seekPredicate(domainClass, root, cb, cursor));
+        }
+
+        Path<Long> id = root.get("id");
+        if ("id".equals(sortOrder.getProperty())) {
+            query.orderBy(sortOrder.isAscending() ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<?> key = root.get(sortOrder.getProperty());
+            query.orderBy(sortOrder.isAscending() ? cb.asc(key) : cb.desc(key),
+                    sortOrder.isAscending() ? cb.asc(id) : cb.desc(id));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Offset counterpart of {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)}
+     * that reads one extra row to tell whether a next page exists instead of running a count query.
+     */
+    public <T> Slice<T> findSlice(Class<T> domainClass, Specification<T> spec, Pageable pageable) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+
+        if (spec != null) {
+            Predicate filter = spec.toPredicate(root, query, cb);
+            if (filter != null) {
+                query.where(filter);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<T> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> Predicate seekPredicate(Class<T> domainClass, Root<T> root, CriteriaBuilder cb, KeysetCursor cursor) {
+
+        boolean ascending = cursor.getDirection().isAscending();
+        Path<Long> id = root.get("id");
+        Predicate afterId = ascending ? cb.greaterThan(id, cursor.getLastId()) : cb.lessThan(id, cursor.getLastId());
+
+        if ("id".equals(cursor.getProperty())) {
+            return afterId;
+        }
+
+        // (key, id) > (value, id) spelled out, since JPQL has no row-value comparison.
+        // Postgres sorts NULLs last ascending and first descending, so they are handled explicitly.
+        Path key = root.get(cursor.getProperty());
+        if (cursor.getLastValue() == null) {
+            return ascending ? cb.and(cb.isNull(key), afterId) : cb.or(cb.isNotNull(key), cb.and(cb.isNull(key), afterId));
+        }
+
+        Class<?> keyType = entityManager.getMetamodel().entity(domainClass)
+                .getAttribute(cursor.getProperty()).getJavaType();
+        Comparable value = (Comparable) convert(cursor.getLastValue(), keyType);
+
+        Predicate afterKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate sameKey = cb.and(cb.equal(key, value), afterId);
+
+        return ascending ? cb.or(afterKey, sameKey, cb.isNull(key)) : cb.or(afterKey, sameKey);
+    }
+
+    private Object convert(String value, Class<?> type) {
+        if (Date.class.isAssignableFrom(type)) {
+            return Timestamp.valueOf(value);
+        }
+        return DefaultConversionService.getSharedInstance().convert(value, type);
+    }
+}
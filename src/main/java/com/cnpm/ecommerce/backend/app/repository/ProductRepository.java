@@ -1,24 +1,99 @@
 package com.cnpm.ecommerce.backend.app.repository;
 
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
 import com.cnpm.ecommerce.backend.app.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String SUMMARY_QUERY = "SELECT new com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO(p.id, p.name, p.brand, p.price, p.unitInStock, c.id, c.name, p.ratingCount, p.ratingSum)"
+            + " FROM Product p LEFT JOIN p.category c";
 
     @Query("SELECT p from Product p WHERE p.category.id=?1")
     List<Product> findProductsByCategoryId(Long categoryId);
 
-    @Query("SELECT p FROM Product p WHERE lower(p.name) LIKE %?1%"
-            + " OR lower(p.shortDescription) LIKE %?1% OR lower(p.description) LIKE %?1% OR lower(p.brand) LIKE %?1%" )
-    List<Product> search( String key);
+    // rows are mapped by ProductMapper.mapToProductSummary(Object[]) in SEARCH_SUMMARY_QUERY's column order
+    String SEARCH_SUMMARY_QUERY = "SELECT p.id, p.name, p.brand, p.price, p.unit_in_stock, c.id AS category_id, c.name AS category_name,"
+            + " p.rating_count, p.rating_sum FROM product p LEFT JOIN category c ON c.id = p.category_id"
+            + " WHERE p.search_vector @@ to_tsquery('simple', ?1)"
+            + " ORDER BY ts_rank(p.search_vector, to_tsquery('simple', ?1)) DESC, p.id";
+
+    @Query(value = SEARCH_SUMMARY_QUERY,
+            countQuery = "SELECT count(*) FROM product p WHERE p.search_vector @@ to_tsquery('simple', ?1)",
+            nativeQuery = true)
+    Page<Object[]> search(String tsQuery, Pageable pageable);
+
+    @Query(value = SEARCH_SUMMARY_QUERY, nativeQuery = true)
+    Slice<Object[]> searchSlice(String tsQuery, Pageable pageable);
 
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     Page<Product> findByCategoryId(Long id, Pageable pageable);
 
+    @Query(value = SUMMARY_QUERY, countQuery = "SELECT count(p) FROM Product p")
+    Page<ProductSummaryDTO> findAllSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_QUERY + " WHERE lower(p.name) LIKE lower(concat('%', ?1, '%'))",
+            countQuery = "SELECT count(p) FROM Product p WHERE lower(p.name) LIKE lower(concat('%', ?1, '%'))")
+    Page<ProductSummaryDTO> findSummariesByNameContaining(String name, Pageable pageable);
+
+    @Query(value = SUMMARY_QUERY + " WHERE c.id=?1",
+            countQuery = "SELECT count(p) FROM Product p WHERE p.category.id=?1")
+    Page<ProductSummaryDTO> findSummariesByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query(SUMMARY_QUERY)
+    Slice<ProductSummaryDTO> findAllSummarySlice(Pageable pageable);
+
+    @Query(SUMMARY_QUERY + " WHERE lower(p.name) LIKE lower(concat('%', ?1, '%'))")
+    Slice<ProductSummaryDTO> findSummarySliceByNameContaining(String name, Pageable pageable);
+
+    @Query(SUMMARY_QUERY + " WHERE c.id=?1")
+    Slice<ProductSummaryDTO> findSummarySliceByCategoryId(Long categoryId, Pageable pageable);
+
+    @Query("SELECT p.thumbnailArr FROM Product p WHERE p.id=?1")
+    Optional<byte[]> findThumbnailById(Long id);
+
+    @Query("SELECT p.id, p.price FROM Product p WHERE p.id IN ?1")
+    List<Object[]> findPricesByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE product SET rating_count = rating_count + ?3, rating_sum = rating_sum + ?2 * ?3, " +
+            "rating_1_count = rating_1_count + CASE WHEN ?2 = 1 THEN ?3 ELSE 0 END, " +
+            "rating_2_count = rating_2_count + CASE WHEN ?2 = 2 THEN ?3 ELSE 0 END, " +
+            "rating_3_count = rating_3_count + CASE WHEN ?2 = 3 THEN ?3 ELSE 0 END, " +
+            "rating_4_count = rating_4_count + CASE WHEN ?2 = 4 THEN ?3 ELSE 0 END, " +
+            "rating_5_count = rating_5_count + CASE WHEN ?2 = 5 THEN ?3 ELSE 0 END " +
+            "WHERE id = ?1", nativeQuery = true)
+    int addRating(Long productId, int rating, int countDelta);
+
+    @Query("SELECT p.id, p.unitInStock FROM Product p WHERE p.id IN ?1")
+    List<Object[]> findStockByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id, p.unitInStock, p.ratingCount, p.ratingSum FROM Product p WHERE p.id IN ?1")
+    List<Object[]> findStockAndRatingByIdIn(Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    // FETCH ALL PROPERTIES loads the lazy thumbnail in the same row instead of one select per product
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT p FROM Product p FETCH ALL PROPERTIES LEFT JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAllWithThumbnails();
+
 }
@@ -0,0 +1,11 @@
+package com.cnpm.ecommerce.backend.app.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    void incrementStock(Map<Long, Integer> quantities);
+}
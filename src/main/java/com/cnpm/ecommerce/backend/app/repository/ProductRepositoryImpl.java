@@ -0,0 +1,57 @@
+package com.cnpm.ecommerce.backend.app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET unit_in_stock = unit_in_stock - ? WHERE id = ? AND unit_in_stock >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE product SET unit_in_stock = unit_in_stock + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes every quantity off the stock in one JDBC batch, each row only if enough stock is left.
+     * Returns the ids of the products whose stock was too low; the caller is expected to roll back.
+     */
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(quantities.entrySet());
+
+        int[][] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setLong(2, row.getKey());
+            ps.setInt(3, row.getValue());
+        });
+
+        List<Long> insufficient = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : updateCounts) {
+            for (int updateCount : batch) {
+                if (updateCount == 0) {
+                    insufficient.add(rows.get(i).getKey());
+                }
+                i++;
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(quantities.entrySet());
+
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setLong(2, row.getKey());
+        });
+    }
+}
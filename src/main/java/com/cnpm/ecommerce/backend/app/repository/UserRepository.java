@@ -3,6 +3,7 @@ package com.cnpm.ecommerce.backend.app.repository;
 import com.cnpm.ecommerce.backend.app.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -21,6 +22,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findByUserNameContainingAndIsAccCustomer(String userName, Boolean isAccCustomer, Pageable pageable);
 
+    Slice<User> findSliceByIsAccCustomer(Boolean isAccCustomer, Pageable pageable);
+
+    Slice<User> findSliceByUserNameContainingAndIsAccCustomer(String userName, Boolean isAccCustomer, Pageable pageable);
+
     @Query("SELECT u FROM User u WHERE u.isAccCustomer = false")
     List<User> findAllEmployee();
 
@@ -38,4 +43,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT count(u) FROM User u WHERE u.isAccCustomer=true")
     Long countCustomer();
+
+    @Query("SELECT u.profilePictureArr FROM User u WHERE u.id=?1")
+    Optional<byte[]> findProfilePictureById(Long id);
 }
@@ -2,6 +2,7 @@ package com.cnpm.ecommerce.backend.app.security;
 
 import com.cnpm.ecommerce.backend.app.service.IUserService;
 import com.cnpm.ecommerce.backend.app.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,10 +36,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 		try {
 			
 			String jwt = parseJwt(request);
-			if(jwt !=null && jwtUtils.validateJwtToken(jwt)) {
-				String username = jwtUtils.getUserNameFromJwtToken(jwt);
-				
-				UserDetails userDetails = userService.loadUserByUsername(username);
+			Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+			if(claims != null) {
+				UserDetails userDetails = userService.loadUserByUsername(claims.getSubject());
 				
 				UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails, null,
 						userDetails.getAuthorities());
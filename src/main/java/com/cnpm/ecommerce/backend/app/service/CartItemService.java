@@ -2,22 +2,21 @@ package com.cnpm.ecommerce.backend.app.service;
 
 import com.cnpm.ecommerce.backend.app.dto.CartItemDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
+import com.cnpm.ecommerce.backend.app.entity.Cart;
 import com.cnpm.ecommerce.backend.app.entity.CartItem;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
 import com.cnpm.ecommerce.backend.app.repository.CartItemRepository;
 import com.cnpm.ecommerce.backend.app.repository.CartRepository;
 import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @Transactional
@@ -30,14 +29,20 @@ public class CartItemService implements ICartItemService{
     @Autowired
     private CartRepository cartRepo;
 
+    @Autowired
+    private CartPricingService cartPricingService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
     @Override
     public List<CartItem> findAll() {
         return cartItemRepo.findAll();
     }
 
     @Override
-    public Page<CartItem> findAllPageAndSort(Pageable pagingSort) {
-        return  cartItemRepo.findAll(pagingSort);
+    public Slice<CartItem> findAllPageAndSort(Pageable pagingSort, boolean includeTotal) {
+        return includeTotal ? cartItemRepo.findAll(pagingSort) : cartItemRepo.findSliceBy(pagingSort);
     }
 
     @Override
@@ -66,7 +71,9 @@ public class CartItemService implements ICartItemService{
         cartItem.setCreatedBy(cartItemDTO.getCreatedBy());
         cartItem.setCreatedDate(new Date());
 
+        stockReservationService.reserve(Collections.singletonMap(cartItemDTO.getProductId(), cartItemDTO.getQuantity()));
         cartItemRepo.save(cartItem);
+        cartPricingService.refreshTotal(cartItem.getCart());
         return new MessageResponse("Create CartItem successfully!", HttpStatus.CREATED, LocalDateTime.now());
     }
 
@@ -77,6 +84,13 @@ public class CartItemService implements ICartItemService{
         if(!cartItem.isPresent()) {
             throw new ResourceNotFoundException("Can't find cartItem with ID=" + theId);
         } else {
+            Cart previousCart = cartItem.get().getCart();
+
+            Map<Long, Integer> stockDeltas = new HashMap<>();
+            stockDeltas.put(cartItem.get().getProduct().getId(), -cartItem.get().getQuantity());
+            stockDeltas.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+            stockReservationService.adjust(stockDeltas);
+
             cartItem.get().setCart(cartRepo.findById(cartItemDTO.getCartId()).get());
             cartItem.get().setProduct(productRepo.findById(cartItemDTO.getProductId()).get());
             cartItem.get().setQuantity(cartItemDTO.getQuantity());
@@ -85,6 +99,11 @@ public class CartItemService implements ICartItemService{
             cartItem.get().setModifiedBy(cartItemDTO.getModifiedBy());
             cartItem.get().setModifiedDate(new Date());
             cartItemRepo.save(cartItem.get());
+
+            cartPricingService.refreshTotal(previousCart);
+            if(!previousCart.getId().equals(cartItem.get().getCart().getId())) {
+                cartPricingService.refreshTotal(cartItem.get().getCart());
+            }
         }
 
         return new MessageResponse("Update CartItem successfully!" , HttpStatus.OK, LocalDateTime.now());
@@ -96,16 +115,18 @@ public class CartItemService implements ICartItemService{
         CartItem cartItem = cartItemRepo.findById(theId).orElseThrow(
                 () -> new ResourceNotFoundException("Can't find cartitem with ID=" + theId));
 
+        stockReservationService.release(Collections.singletonMap(cartItem.getProduct().getId(), cartItem.getQuantity()));
         cartItemRepo.delete(cartItem);
+        cartPricingService.refreshTotal(cartItem.getCart());
     }
 
     @Override
-    public Page<CartItem> findByIdContaining(Long id, Pageable pagingSort) {
-        return cartItemRepo.findById(id, pagingSort);
+    public Slice<CartItem> findByIdContaining(Long id, Pageable pagingSort, boolean includeTotal) {
+        return includeTotal ? cartItemRepo.findById(id, pagingSort) : cartItemRepo.findSliceById(id, pagingSort);
     }
 
     @Override
-    public Page<CartItem> findByCartIdPageAndSort(Long cartId, Pageable pagingSort) {
-        return cartItemRepo.findByCartId(cartId, pagingSort);
+    public Slice<CartItem> findByCartIdPageAndSort(Long cartId, Pageable pagingSort, boolean includeTotal) {
+        return includeTotal ? cartItemRepo.findByCartId(cartId, pagingSort) : cartItemRepo.findSliceByCartId(cartId, pagingSort);
     }
 }
\ No newline at end of file
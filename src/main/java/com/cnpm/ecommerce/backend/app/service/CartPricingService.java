@@ -0,0 +1,116 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.config.CacheConfig;
+import com.cnpm.ecommerce.backend.app.dto.CartItemDTO;
+import com.cnpm.ecommerce.backend.app.entity.Cart;
+import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
+import com.cnpm.ecommerce.backend.app.repository.CartItemRepository;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Computes cart totals on the server from product prices. Prices are kept in the
+ * {@link CacheConfig#PRODUCT_PRICES} cache, loaded in bulk on a miss and evicted when a product
+ * is updated or deleted, so pricing a large cart doesn't reload its products.
+ */
+@Service
+public class CartPricingService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Returns the price of every given product, throwing {@link ResourceNotFoundException} when
+     * one of them doesn't exist. Products without a price are priced at zero.
+     */
+    public Map<Long, BigDecimal> findPrices(Collection<Long> productIds) {
+        Cache prices = priceCache();
+        Map<Long, BigDecimal> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+
+        for(Long productId : productIds) {
+            Cache.ValueWrapper price = prices.get(productId);
+            if(price != null) {
+                result.put(productId, (BigDecimal) price.get());
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if(!missing.isEmpty()) {
+            for(Object[] row : productRepository.findPricesByIdIn(missing)) {
+                Long productId = (Long) row[0];
+                BigDecimal price = row[1] == null ? BigDecimal.ZERO : (BigDecimal) row[1];
+                prices.put(productId, price);
+                result.put(productId, price);
+                missing.remove(productId);
+            }
+        }
+
+        if(!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Can't find product with ID=" + missing.iterator().next());
+        }
+        return result;
+    }
+
+    public BigDecimal totalOf(List<CartItemDTO> cartItems) {
+        Set<Long> productIds = new HashSet<>();
+        for(CartItemDTO cartItem : cartItems) {
+            productIds.add(cartItem.getProductId());
+        }
+        Map<Long, BigDecimal> prices = findPrices(productIds);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for(CartItemDTO cartItem : cartItems) {
+            total = total.add(prices.get(cartItem.getProductId()).multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+        }
+        return total;
+    }
+
+    /**
+     * Recomputes the cart total from its stored lines once pending line changes are flushed. Adding a
+     * delta instead would price the old line at today's price, not the one it was added at.
+     */
+    public void refreshTotal(Cart cart) {
+        cartItemRepository.flush();
+        cart.setTotalCost(recomputeTotal(cart.getId()));
+    }
+
+    public BigDecimal recomputeTotal(Long cartId) {
+        List<Object[]> lines = cartItemRepository.findProductQuantitiesByCartId(cartId);
+
+        Set<Long> productIds = new HashSet<>();
+        for(Object[] line : lines) {
+            productIds.add((Long) line[0]);
+        }
+        Map<Long, BigDecimal> prices = findPrices(productIds);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for(Object[] line : lines) {
+            total = total.add(prices.get((Long) line[0]).multiply(BigDecimal.valueOf((Integer) line[1])));
+        }
+        return total;
+    }
+
+    public void evictPriceAfterCommit(Long productId) {
+        Cache prices = priceCache();
+        CommonUtils.runAfterCommit(() -> prices.evict(productId));
+    }
+
+    private Cache priceCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.PRODUCT_PRICES));
+    }
+}
@@ -5,20 +5,26 @@ import com.cnpm.ecommerce.backend.app.dto.CartItemDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Cart;
 import com.cnpm.ecommerce.backend.app.entity.CartItem;
+import com.cnpm.ecommerce.backend.app.entity.Product;
 import com.cnpm.ecommerce.backend.app.entity.User;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
 import com.cnpm.ecommerce.backend.app.repository.*;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -32,53 +38,67 @@ public class CartService implements ICartService{
     private UserRepository customerRepo;
     @Autowired
     private ProductRepository productRepo;
+    @Autowired
+    private KeysetRepository keysetRepo;
+    @Autowired
+    private CartPricingService cartPricingService;
+    @Autowired
+    private StockReservationService stockReservationService;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Cart> findAll() {
-        return cartRepo.findAll();
+        return fetchCartItems(cartRepo.findAll());
     }
 
     @Override
-    public Page<Cart> findAllPageAndSort(Pageable pagingSort) {
-        return cartRepo.findAll(pagingSort);
+    @Transactional(readOnly = true)
+    public Slice<Cart> findAllPageAndSort(Pageable pagingSort, boolean includeTotal) {
+        return fetchCartItems(includeTotal ? cartRepo.findAll(pagingSort) : cartRepo.findSliceBy(pagingSort));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Cart findById(Long theId) {
 
         return cartRepo
-                .findById(theId).orElseThrow(() -> new ResourceNotFoundException("can't find cart with ID=" + theId));
+                .findWithItemsById(theId).orElseThrow(() -> new ResourceNotFoundException("can't find cart with ID=" + theId));
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<Cart> findByCustomerId(long customerId) {
-        return cartRepo.findByCustomer(customerId);
+        return fetchCartItems(cartRepo.findByCustomer(customerId));
     }
 
     @Override
     public MessageResponse createCart(CartDTO cartDTO) {
         Cart cart = new Cart();
-        cart.setTotalCost(cartDTO.getTotalCost());
+        cart.setTotalCost(cartPricingService.totalOf(cartDTO.getCartItems()));
         cart.setNote(cartDTO.getNote());
         cart.setUser(customerRepo.getById(cartDTO.getCustomerId()));
         cart.setAddress(cartDTO.getAddress());
         cart.setCreatedBy(cartDTO.getCreatedBy());
         cart.setCreatedDate(new Date());
 
+        Map<Long, Product> products = findProducts(cartDTO.getCartItems());
+        stockReservationService.reserve(quantitiesByProduct(cartDTO.getCartItems()));
         Cart savedCart = cartRepo.save(cart);
 
+        List<CartItem> cartItems = new ArrayList<>();
         for( CartItemDTO cartItemDTO : cartDTO.getCartItems()){
             CartItem cartItem = new CartItem();
             cartItem.setCart(savedCart);
-            cartItem.setProduct(productRepo.findById(cartItemDTO.getProductId()).get());
+            cartItem.setProduct(products.get(cartItemDTO.getProductId()));
             cartItem.setQuantity(cartItemDTO.getQuantity());
             cartItem.setStatus(cartItemDTO.getStatus());
             cartItem.setCreatedBy(cartItemDTO.getCreatedBy());
             cartItem.setCreatedDate(new Date());
 
-            cartItemRepo.save(cartItem);
+            cartItems.add(cartItem);
         }
+        cartItemRepo.batchInsert(cartItems);
 
         return new MessageResponse("Create cart successfully!", HttpStatus.CREATED, LocalDateTime.now());
     }
@@ -86,44 +106,79 @@ public class CartService implements ICartService{
     @Override
     public MessageResponse updateCart(Long theId, CartDTO cartDTO) {
 
-        Optional<Cart> cart = cartRepo.findById(theId);
+        Optional<Cart> cart = cartRepo.findForUpdateById(theId);
 
         if(!cart.isPresent()) {
             throw new ResourceNotFoundException("Can't find Cart with ID=" + theId);
+        } else if(cartDTO.getVersion() != null && !cartDTO.getVersion().equals(cart.get().getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Cart.class, theId);
         } else {
-            cart.get().setTotalCost(cartDTO.getTotalCost());
+            cart.get().setTotalCost(cartPricingService.totalOf(cartDTO.getCartItems()));
             cart.get().setNote(cartDTO.getNote());
             cart.get().setUser(customerRepo.getById(cartDTO.getCustomerId()));
             cart.get().setAddress(cartDTO.getAddress());
 
             cart.get().setModifiedBy(cartDTO.getModifiedBy());
             cart.get().setModifiedDate(cartDTO.getModifiedDate());
-            Cart savedCart = cartRepo.save(cart.get());
 
-            System.out.println("\nSize of incoming cartItemList : " + cartDTO.getCartItems().size());
-
-            for(CartItem previousCartItem : cart.get().getCartItems()){
-                cartItemRepo.delete(previousCartItem);
+            Map<Long, Integer> stockDeltas = quantitiesByProduct(cartDTO.getCartItems());
+            for(CartItem cartItem : cart.get().getCartItems()) {
+                stockDeltas.merge(cartItem.getProduct().getId(), -cartItem.getQuantity(), Integer::sum);
             }
-            cart.get().getCartItems().clear();
+            stockReservationService.adjust(stockDeltas);
+
+            mergeCartItems(cart.get(), cartDTO.getCartItems());
+        }
 
-            for(int i = 0; i < cartDTO.getCartItems().size(); i++){
-                CartItemDTO changedCartItemDTO = cartDTO.getCartItems().get(i);
+        return new MessageResponse("Update cart successfully!" , HttpStatus.OK, LocalDateTime.now());
+    }
+
+    /**
+     * Matches incoming lines to existing items by product: changed lines are updated in place,
+     * unmatched existing items are removed through orphan removal and new lines are batch inserted.
+     */
+    private void mergeCartItems(Cart cart, List<CartItemDTO> cartItemDTOs) {
+
+        Map<Long, CartItem> existingItems = new HashMap<>();
+        for(CartItem cartItem : cart.getCartItems()) {
+            existingItems.putIfAbsent(cartItem.getProduct().getId(), cartItem);
+        }
 
-                CartItem cartItemToChange = new CartItem();
-                cartItemToChange.setCart(savedCart);
-                cartItemToChange.setProduct(productRepo.findById(changedCartItemDTO.getProductId()).get());
-                cartItemToChange.setQuantity(changedCartItemDTO.getQuantity());
-                cartItemToChange.setStatus(changedCartItemDTO.getStatus());
+        List<CartItemDTO> newItemDTOs = new ArrayList<>();
+        Set<CartItem> keptItems = new HashSet<>();
+        for(CartItemDTO cartItemDTO : cartItemDTOs) {
+            CartItem cartItem = existingItems.remove(cartItemDTO.getProductId());
 
-                cartItemToChange.setModifiedBy(changedCartItemDTO.getModifiedBy());
-                cartItemToChange.setModifiedDate(changedCartItemDTO.getModifiedDate());
-                cartItemRepo.save(cartItemToChange);
+            if(cartItem == null) {
+                newItemDTOs.add(cartItemDTO);
+                continue;
             }
+            keptItems.add(cartItem);
 
+            if(cartItem.getQuantity() != cartItemDTO.getQuantity() || cartItem.getStatus() != cartItemDTO.getStatus()) {
+                cartItem.setQuantity(cartItemDTO.getQuantity());
+                cartItem.setStatus(cartItemDTO.getStatus());
+                cartItem.setModifiedBy(cartItemDTO.getModifiedBy());
+                cartItem.setModifiedDate(new Date());
+            }
         }
 
-        return new MessageResponse("Update cart successfully!" , HttpStatus.OK, LocalDateTime.now());
+        cart.getCartItems().removeIf(cartItem -> !keptItems.contains(cartItem));
+
+        Map<Long, Product> products = findProducts(newItemDTOs);
+        List<CartItem> cartItems = new ArrayList<>();
+        for(CartItemDTO cartItemDTO : newItemDTOs) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(products.get(cartItemDTO.getProductId()));
+            cartItem.setQuantity(cartItemDTO.getQuantity());
+            cartItem.setStatus(cartItemDTO.getStatus());
+            cartItem.setModifiedBy(cartItemDTO.getModifiedBy());
+            cartItem.setModifiedDate(cartItemDTO.getModifiedDate());
+
+            cartItems.add(cartItem);
+        }
+        cartItemRepo.batchInsert(cartItems);
     }
 
     @Override
@@ -131,16 +186,24 @@ public class CartService implements ICartService{
         Cart cart = cartRepo.findById(theId).orElseThrow(
                 () -> new ResourceNotFoundException("can't find cart with ID=" + theId));
 
+        Map<Long, Integer> reserved = new HashMap<>();
+        for(Object[] line : cartItemRepo.findProductQuantitiesByCartId(theId)) {
+            reserved.merge((Long) line[0], (Integer) line[1], Integer::sum);
+        }
+        stockReservationService.release(reserved);
+
         cartRepo.delete(cart);
     }
 
     @Override
-    public Page<Cart> findByIdContaining(Long id, Pageable pagingSort) {
-        return cartRepo.findById(id, pagingSort);
+    @Transactional(readOnly = true)
+    public Slice<Cart> findByIdContaining(Long id, Pageable pagingSort, boolean includeTotal) {
+        return fetchCartItems(includeTotal ? cartRepo.findById(id, pagingSort) : cartRepo.findSliceById(id, pagingSort));
     }
 
     @Override
-    public Page<Cart> findByCustomerIdPageAndSort(Long customerId, Pageable pagingSort) {
+    @Transactional(readOnly = true)
+    public Slice<Cart> findByCustomerIdPageAndSort(Long customerId, Pageable pagingSort, boolean includeTotal) {
 
         Optional<User> customer = customerRepo.findById(customerId);
 
@@ -149,13 +212,73 @@ public class CartService implements ICartService{
         }
         else
         {
-            Page<Cart> cartPage = cartRepo.findByUserId(customerId,pagingSort);
-            return cartPage;
+            Slice<Cart> cartSlice = includeTotal
+                    ? cartRepo.findByUserId(customerId, pagingSort)
+                    : cartRepo.findSliceByUserId(customerId, pagingSort);
+            return fetchCartItems(cartSlice);
         }
 
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetSlice<Cart> findAllAfter(Long id, Long customerId, Sort.Order order, String after, int limit) {
+
+        Specification<Cart> spec = (root, query, cb) -> {
+            root.fetch("user", JoinType.LEFT);
+
+            List<Predicate> predicates = new ArrayList<>();
+            if(id != null) {
+                predicates.add(cb.equal(root.get("id"), id));
+            }
+            if(customerId != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), customerId));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        KeysetSlice<Cart> cartSlice = keysetRepo.findSlice(Cart.class, spec, order, after, limit);
+        fetchCartItems(cartSlice.getContent());
+        return cartSlice;
+    }
+
+    private Slice<Cart> fetchCartItems(Slice<Cart> cartSlice) {
+        fetchCartItems(cartSlice.getContent());
+        return cartSlice;
+    }
+
+    private List<Cart> fetchCartItems(List<Cart> carts) {
+        if(!carts.isEmpty()) {
+            cartRepo.fetchCartItems(carts.stream().map(Cart::getId).collect(Collectors.toList()));
+        }
+        return carts;
+    }
+
+    private static Map<Long, Integer> quantitiesByProduct(List<CartItemDTO> cartItemDTOs) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for(CartItemDTO cartItemDTO : cartItemDTOs) {
+            quantities.merge(cartItemDTO.getProductId(), cartItemDTO.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private Map<Long, Product> findProducts(List<CartItemDTO> cartItemDTOs) {
+        Set<Long> productIds = cartItemDTOs.stream()
+                .map(CartItemDTO::getProductId)
+                .collect(Collectors.toSet());
+
+        // only the ids are written, so existence is checked against the price cache and the
+        // products themselves are never loaded
+        cartPricingService.findPrices(productIds);
+
+        Map<Long, Product> products = new HashMap<>();
+        for(Long productId : productIds) {
+            products.put(productId, productRepo.getById(productId));
+        }
+        return products;
+    }
+
 
 
 }
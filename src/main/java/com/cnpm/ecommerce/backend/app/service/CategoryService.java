@@ -1,11 +1,15 @@
 package com.cnpm.ecommerce.backend.app.service;
 
+import com.cnpm.ecommerce.backend.app.config.CacheConfig;
 import com.cnpm.ecommerce.backend.app.dto.CategoryDTO;
+import com.cnpm.ecommerce.backend.app.dto.CategorySummaryDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Category;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
 import com.cnpm.ecommerce.backend.app.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -17,6 +21,7 @@ import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,28 +30,37 @@ public class CategoryService implements ICategoryService{
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private EntityCounterService entityCounterService;
+
     @Override
-    public List<Category> findAll() {
-        List<Category> categories = categoryRepository.findAll();
-        for(Category category : categories) {
-            category.setThumbnail(Base64Utils.encodeToString(category.getThumbnailArr()));
-        }
+    @Cacheable(value = CacheConfig.CATEGORIES, key = "'all'")
+    public List<CategorySummaryDTO> findAll() {
+        return categoryRepository.findAll().stream()
+                .map(this::toSummary)
+                .collect(Collectors.toList());
+    }
 
-        return categories;
+    @Override
+    @Cacheable(value = CacheConfig.CATEGORIES, key = "#theId")
+    public CategorySummaryDTO findById(Long theId) throws ResourceNotFoundException {
+        Category category = categoryRepository.findById(theId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found category with ID=" + theId));
+
+        return toSummary(category);
     }
 
     @Override
-    public Category findById(Long theId) throws ResourceNotFoundException {
-        Optional<Category> category = categoryRepository.findById(theId);
-        if(!category.isPresent()) {
-            throw  new ResourceNotFoundException("Not found category with ID=" + theId);
-        } else {
-            category.get().setThumbnail(Base64Utils.encodeToString(category.get().getThumbnailArr()));
-            return category.get();
-        }
+    public byte[] findThumbnailById(Long theId) throws ResourceNotFoundException {
+        return categoryRepository.findThumbnailById(theId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found thumbnail of category with ID=" + theId));
     }
 
     @Override
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public MessageResponse createCategory(CategoryDTO theCategoryDto) {
 
         Category theCategory = new Category();
@@ -63,6 +77,7 @@ public class CategoryService implements ICategoryService{
     }
 
     @Override
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public MessageResponse updateCategory(Long theId, CategoryDTO theCategoryDto) {
         Optional<Category> theCategory = categoryRepository.findById(theId);
 
@@ -83,17 +98,22 @@ public class CategoryService implements ICategoryService{
             theCategory.get().setThumbnailArr(Base64Utils.decodeFromString(theCategoryDto.getThumbnail()));
 
             categoryRepository.save(theCategory.get());
+            productSearchIndex.renameCategoryAfterCommit(theId, theCategoryDto.getName());
         }
 
         return new MessageResponse("Updated category successfully!", HttpStatus.OK, LocalDateTime.now());
     }
 
     @Override
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public void deleteCategory(Long theId) {
         Category theCategory = categoryRepository.findById(theId).orElseThrow(
                 () -> new ResourceNotFoundException("Not found category with ID=" + theId));
 
         categoryRepository.delete(theCategory);
+        productSearchIndex.removeCategoryAfterCommit(theId);
+        entityCounterService.invalidateAfterCommit(EntityCounterService.Counter.PRODUCTS);
+        entityCounterService.invalidateAfterCommit(EntityCounterService.Counter.FEEDBACKS);
     }
 
     @Override
@@ -101,7 +121,7 @@ public class CategoryService implements ICategoryService{
         Page<Category> categoryPage =  categoryRepository.findAll(pagingSort);
 
         for(Category category : categoryPage.getContent()) {
-            category.setThumbnail(Base64Utils.encodeToString(category.getThumbnailArr()));
+            category.setThumbnailUrl(thumbnailUrlOf(category));
         }
         return  categoryPage;
     }
@@ -111,7 +131,7 @@ public class CategoryService implements ICategoryService{
         Page<Category> categoryPage =  categoryRepository.findByNameContainingIgnoreCase(categoryName, pagingSort);
 
         for(Category category : categoryPage.getContent()) {
-            category.setThumbnail(Base64Utils.encodeToString(category.getThumbnailArr()));
+            category.setThumbnailUrl(thumbnailUrlOf(category));
         }
         return  categoryPage;
     }
@@ -120,4 +140,12 @@ public class CategoryService implements ICategoryService{
     public Boolean existsByName(String name) {
         return categoryRepository.existsByName(name);
     }
+
+    private CategorySummaryDTO toSummary(Category category) {
+        return new CategorySummaryDTO(category.getId(), category.getName(), category.getDescription(), thumbnailUrlOf(category));
+    }
+
+    private String thumbnailUrlOf(Category category) {
+        return "/api/categories/" + category.getId() + "/thumbnail";
+    }
 }
@@ -0,0 +1,135 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.repository.FeedbackRepository;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.repository.UserRepository;
+import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row counts for the admin dashboard without a {@code count(*)} per poll.
+ *
+ * {@link CountMode#CACHED} answers from in-memory counters that the create/delete paths adjust after
+ * commit and that are resynced from the database every {@code app.counters.resync-interval-ms}.
+ * {@link CountMode#EXACT} always counts, and {@link CountMode#ESTIMATE} reads the planner's
+ * {@code pg_class.reltuples}, which only exists for counters covering a whole table.
+ */
+@Service
+public class EntityCounterService {
+
+    public enum Counter {
+        PRODUCTS("product"),
+        FEEDBACKS("feedback"),
+        EMPLOYEES(null),
+        CUSTOMERS(null);
+
+        private final String table;
+
+        Counter(String table) {
+            this.table = table;
+        }
+    }
+
+    public enum CountMode {
+        CACHED, EXACT, ESTIMATE;
+
+        public static CountMode of(String mode) {
+            return valueOf(mode.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Counter, AtomicLong> counts = new EnumMap<>(Counter.class);
+
+    public EntityCounterService() {
+        for (Counter counter : Counter.values()) {
+            counts.put(counter, new AtomicLong(-1));
+        }
+    }
+
+    public long count(Counter counter, CountMode mode) {
+        if (mode == CountMode.EXACT) {
+            return resync(counter);
+        }
+        if (mode == CountMode.ESTIMATE && counter.table != null) {
+            List<Long> estimate = jdbcTemplate.queryForList(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, counter.table);
+            // reltuples is -1 until the table has been analyzed once
+            if (!estimate.isEmpty() && estimate.get(0) >= 0) {
+                return estimate.get(0);
+            }
+        }
+
+        long count = counts.get(counter).get();
+        return count >= 0 ? count : resync(counter);
+    }
+
+    public void incrementAfterCommit(Counter counter) {
+        CommonUtils.runAfterCommit(() -> addIfLoaded(counter, 1));
+    }
+
+    public void decrementAfterCommit(Counter counter) {
+        CommonUtils.runAfterCommit(() -> addIfLoaded(counter, -1));
+    }
+
+    // for deletes that cascade to rows nobody counted, the next read recounts
+    public void invalidateAfterCommit(Counter counter) {
+        CommonUtils.runAfterCommit(() -> counts.get(counter).set(-1));
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.resync-interval-ms:300000}",
+            initialDelayString = "${app.counters.resync-interval-ms:300000}")
+    public void resyncAll() {
+        for (Counter counter : Counter.values()) {
+            if (counts.get(counter).get() >= 0) {
+                resync(counter);
+            }
+        }
+    }
+
+    private long resync(Counter counter) {
+        long count = countExactly(counter);
+        counts.get(counter).set(count);
+        return count;
+    }
+
+    private long countExactly(Counter counter) {
+        switch (counter) {
+            case PRODUCTS:
+                return productRepository.count();
+            case FEEDBACKS:
+                return feedbackRepository.count();
+            case EMPLOYEES:
+                return userRepository.countEmployee();
+            case CUSTOMERS:
+                return userRepository.countCustomer();
+            default:
+                throw new IllegalArgumentException("Unknown counter " + counter);
+        }
+    }
+
+    // counters that were never read stay unloaded, the first read counts them exactly
+    private void addIfLoaded(Counter counter, long delta) {
+        counts.get(counter).updateAndGet(count -> count >= 0 ? count + delta : count);
+    }
+}
@@ -5,14 +5,25 @@ import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Feedback;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
 import com.cnpm.ecommerce.backend.app.repository.FeedbackRepository;
+import com.cnpm.ecommerce.backend.app.repository.KeysetRepository;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +41,18 @@ public class FeedbackService implements IFeedbackService {
     @Autowired
     private IUserService customerService;
 
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityCounterService entityCounterService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     @Override
     public List<Feedback> findAll() {
 
@@ -59,23 +82,35 @@ public class FeedbackService implements IFeedbackService {
         theFeedback.setCreatedBy("");
         theFeedback.setUser(customerService.findByIdCustomer(theFeedbackDto.getCustomerId()));
         feedbackRepository.save(theFeedback);
+        productRepository.addRating(theFeedbackDto.getProductId(), theFeedbackDto.getRating(), 1);
+        productSearchIndex.markStaleAfterCommit(Collections.singleton(theFeedbackDto.getProductId()));
+        entityCounterService.incrementAfterCommit(EntityCounterService.Counter.FEEDBACKS);
 
         return new MessageResponse("Create feedback successfully!", HttpStatus.CREATED, LocalDateTime.now());
     }
 
     @Override
     public MessageResponse updateFeedback(Long theId, FeedbackDTO theFeedbackDto) {
-        Optional<Feedback> theFeedback = feedbackRepository.findById(theId);
+        Optional<Feedback> theFeedback = feedbackRepository.findForUpdateById(theId);
 
         if (!theFeedback.isPresent()) {
             throw new ResourceNotFoundException("Not found product with ID=" + theId);
         } else {
+            Long previousProductId = theFeedback.get().getProduct().getId();
+            int previousRating = theFeedback.get().getRating();
+
             theFeedback.get().setRating(theFeedbackDto.getRating());
             theFeedback.get().setProduct(productService.findById(theFeedbackDto.getProductId()));
             theFeedback.get().setCreatedDate(new Date());
             theFeedback.get().setCreatedBy("");
 
             feedbackRepository.save(theFeedback.get());
+
+            if(!previousProductId.equals(theFeedbackDto.getProductId()) || previousRating != theFeedbackDto.getRating()) {
+                productRepository.addRating(previousProductId, previousRating, -1);
+                productRepository.addRating(theFeedbackDto.getProductId(), theFeedbackDto.getRating(), 1);
+                productSearchIndex.markStaleAfterCommit(Arrays.asList(previousProductId, theFeedbackDto.getProductId()));
+            }
         }
 
         return new MessageResponse("Update feedback successfully!", HttpStatus.OK, LocalDateTime.now());
@@ -84,21 +119,70 @@ public class FeedbackService implements IFeedbackService {
     @Override
     public void deleteFeedback(Long theId) {
 
-        Feedback theFeedback = feedbackRepository.findById(theId).orElseThrow(
+        Feedback theFeedback = feedbackRepository.findForUpdateById(theId).orElseThrow(
                 () -> new ResourceNotFoundException("Not found feedback with ID=" + theId));
 
         feedbackRepository.delete(theFeedback);
+        productRepository.addRating(theFeedback.getProduct().getId(), theFeedback.getRating(), -1);
+        productSearchIndex.markStaleAfterCommit(Collections.singleton(theFeedback.getProduct().getId()));
+        entityCounterService.decrementAfterCommit(EntityCounterService.Counter.FEEDBACKS);
 
     }
 
     @Override
-    public Long count() {
+    public Long count(EntityCounterService.CountMode mode) {
 
-        return feedbackRepository.count();
+        return entityCounterService.count(EntityCounterService.Counter.FEEDBACKS, mode);
     }
 
     @Override
-    public Page<Feedback> findByRatingContaining(int rating, Pageable pagingSort) {
-        return feedbackRepository.findByRatingContaining(rating, pagingSort);
+    @Transactional(readOnly = true)
+    public Slice<Feedback> findAllByFilter(Integer rating, Integer minRating, Integer maxRating, Long productId,
+                                           Long customerId, Pageable pagingSort, boolean includeTotal) {
+
+        Specification<Feedback> spec = filterBy(rating, minRating, maxRating, productId, customerId);
+
+        return includeTotal
+                ? feedbackRepository.findAll(spec, pagingSort)
+                : keysetRepository.findSlice(Feedback.class, spec, pagingSort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetSlice<Feedback> findAllAfter(Integer rating, Integer minRating, Integer maxRating, Long productId,
+                                              Long customerId, Sort.Order order, String after, int limit) {
+
+        Specification<Feedback> spec = filterBy(rating, minRating, maxRating, productId, customerId);
+
+        return keysetRepository.findSlice(Feedback.class, spec, order, after, limit);
+    }
+
+    private static Specification<Feedback> filterBy(Integer rating, Integer minRating, Integer maxRating,
+                                                    Long productId, Long customerId) {
+        return (root, query, cb) -> {
+            // the count query of a page can't fetch, and doesn't need the associations anyway
+            if(!Long.class.equals(query.getResultType())) {
+                root.fetch("product", JoinType.LEFT).fetch("category", JoinType.LEFT);
+                root.fetch("user", JoinType.LEFT);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            if(productId != null) {
+                predicates.add(cb.equal(root.get("product").get("id"), productId));
+            }
+            if(customerId != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), customerId));
+            }
+            if(rating != null) {
+                predicates.add(cb.equal(root.get("rating"), rating));
+            }
+            if(minRating != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), minRating));
+            }
+            if(maxRating != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("rating"), maxRating));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
     }
 }
\ No newline at end of file
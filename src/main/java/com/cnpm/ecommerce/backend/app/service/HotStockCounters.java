@@ -0,0 +1,292 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the stock of designated hot products in memory so that flash-sale checkouts don't all
+ * queue on the same {@code product} row lock.
+ *
+ * Each hot product's stock is split over striped shards; a reservation takes from the calling
+ * thread's shard with a CAS and only falls back to locking the product when that shard runs dry.
+ * Net changes are written back to {@code unit_in_stock} every {@code app.stock.hot.flush-interval-ms}
+ * and on shutdown, and the counters are loaded from the database on startup. Changes made after
+ * the last flush are lost if the instance dies, and the mode assumes a single instance owns the
+ * hot products. Disabled unless {@code app.stock.hot.product-ids} lists at least one product.
+ */
+@Service
+public class HotStockCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockCounters.class);
+
+    @Value("${app.stock.hot.product-ids:}")
+    private Set<Long> hotProductIds;
+
+    @Value("${app.stock.hot.shards:16}")
+    private int shardCount;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // serializes flushes with administrator resets of unit_in_stock
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (hotProductIds.isEmpty()) {
+            return;
+        }
+
+        for (Object[] row : productRepository.findStockByIdIn(hotProductIds)) {
+            Counter counter = new Counter(shardCount);
+            counter.reset((Integer) row[1]);
+            counters.put((Long) row[0], counter);
+        }
+        logger.info("Hot stock counters loaded for products {}", counters.keySet());
+    }
+
+    /**
+     * Takes {@code quantity} units of a hot product, returning false when not enough stock is left.
+     * The units are given back if the surrounding transaction rolls back.
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        Counter counter = counters.get(productId);
+        long generation = counter.tryReserve(quantity);
+        if (generation < 0) {
+            return false;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        counter.release(quantity, generation);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Gives units of a hot product back once the surrounding transaction commits.
+     */
+    public void release(Long productId, int quantity) {
+        Counter counter = counters.get(productId);
+        CommonUtils.runAfterCommit(() -> counter.release(quantity, Counter.ANY_GENERATION));
+    }
+
+    /**
+     * Replaces the in-memory stock after an administrator set {@code unit_in_stock} directly.
+     * The new value is taken as the whole stock: deltas that were not flushed yet are discarded, and
+     * units taken before the reset by transactions that later roll back are not given back.
+     *
+     * Must be called before the product row is written: the flush lock is held until the transaction
+     * completes, so a flush that drained its deltas earlier can't add them on top of the new value.
+     */
+    public void resetAfterCommit(Long productId, int unitInStock) {
+        Counter counter = counters.get(productId);
+        if (counter == null) {
+            return;
+        }
+
+        flushLock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                counter.reset(unitInStock);
+            } finally {
+                flushLock.unlock();
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        counter.reset(unitInStock);
+                    }
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock.hot.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            counters.forEach((productId, counter) -> {
+                long delta = counter.drainPending();
+                if (delta != 0) {
+                    deltas.put(productId, Math.toIntExact(delta));
+                }
+            });
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                productRepository.incrementStock(deltas);
+                productSearchIndex.markStaleAfterCommit(deltas.keySet());
+            } catch (RuntimeException e) {
+                deltas.forEach((productId, delta) -> counters.get(productId).restorePending(delta));
+                logger.warn("Hot stock flush failed, will retry: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static class Counter {
+
+        static final long ANY_GENERATION = -1;
+
+        private final AtomicLong[] available;
+
+        private final AtomicLong[] pending;
+
+        // reservations and releases share the read lock so a reset can't land between taking units and recording them
+        private final ReadWriteLock resetLock = new ReentrantReadWriteLock();
+
+        // bumped by every reset, so a rollback can tell its units were taken from the stock the reset replaced
+        private long generation;
+
+        Counter(int shardCount) {
+            available = new AtomicLong[shardCount];
+            pending = new AtomicLong[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                available[i] = new AtomicLong();
+                pending[i] = new AtomicLong();
+            }
+        }
+
+        /**
+         * Returns the generation the units were taken from, or -1 when not enough stock is left.
+         */
+        long tryReserve(int quantity) {
+            resetLock.readLock().lock();
+            try {
+                int shard = shardOfCurrentThread();
+                if (tryTake(shard, quantity)) {
+                    pending[shard].addAndGet(-quantity);
+                    return generation;
+                }
+                return tryReserveRebalancing(shard, quantity) ? generation : -1;
+            } finally {
+                resetLock.readLock().unlock();
+            }
+        }
+
+        // the thread's own shard ran dry: pool all shards under the lock and spread what is left
+        private synchronized boolean tryReserveRebalancing(int shard, int quantity) {
+            long total = 0;
+            for (AtomicLong units : available) {
+                total += units.getAndSet(0);
+            }
+
+            boolean reserved = total >= quantity;
+            if (reserved) {
+                total -= quantity;
+                pending[shard].addAndGet(-quantity);
+            }
+            spread(total);
+            return reserved;
+        }
+
+        void release(int quantity, long reservedGeneration) {
+            resetLock.readLock().lock();
+            try {
+                if (reservedGeneration != ANY_GENERATION && reservedGeneration != generation) {
+                    return;
+                }
+                int shard = shardOfCurrentThread();
+                available[shard].addAndGet(quantity);
+                pending[shard].addAndGet(quantity);
+            } finally {
+                resetLock.readLock().unlock();
+            }
+        }
+
+        void reset(long unitInStock) {
+            resetLock.writeLock().lock();
+            try {
+                for (int i = 0; i < available.length; i++) {
+                    available[i].set(0);
+                    pending[i].set(0);
+                }
+                spread(unitInStock);
+                generation++;
+            } finally {
+                resetLock.writeLock().unlock();
+            }
+        }
+
+        long drainPending() {
+            long delta = 0;
+            for (AtomicLong units : pending) {
+                delta += units.getAndSet(0);
+            }
+            return delta;
+        }
+
+        void restorePending(long delta) {
+            pending[0].addAndGet(delta);
+        }
+
+        private void spread(long units) {
+            long perShard = units / available.length;
+            for (int i = 0; i < available.length; i++) {
+                available[i].addAndGet(i == 0 ? perShard + units % available.length : perShard);
+            }
+        }
+
+        private int shardOfCurrentThread() {
+            return (int) (Thread.currentThread().getId() % available.length);
+        }
+
+        private boolean tryTake(int shard, int quantity) {
+            AtomicLong units = available[shard];
+            long current;
+            do {
+                current = units.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!units.compareAndSet(current, current - quantity));
+            return true;
+        }
+    }
+}
@@ -3,15 +3,15 @@ package com.cnpm.ecommerce.backend.app.service;
 import com.cnpm.ecommerce.backend.app.dto.CartItemDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.CartItem;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface ICartItemService {
     List<CartItem> findAll();
 
-    Page<CartItem> findAllPageAndSort(Pageable pagingSort);
+    Slice<CartItem> findAllPageAndSort(Pageable pagingSort, boolean includeTotal);
 
     CartItem findById(Long theId);
 
@@ -23,7 +23,7 @@ public interface ICartItemService {
 
     void deleteCartItem(Long theId);
 
-    Page<CartItem> findByIdContaining(Long id, Pageable pagingSort);
+    Slice<CartItem> findByIdContaining(Long id, Pageable pagingSort, boolean includeTotal);
 
-    Page<CartItem> findByCartIdPageAndSort(Long cartId, Pageable pagingSort);
+    Slice<CartItem> findByCartIdPageAndSort(Long cartId, Pageable pagingSort, boolean includeTotal);
 }
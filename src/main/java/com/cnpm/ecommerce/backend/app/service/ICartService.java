@@ -3,15 +3,17 @@ package com.cnpm.ecommerce.backend.app.service;
 import com.cnpm.ecommerce.backend.app.dto.CartDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Cart;
-import org.springframework.data.domain.Page;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
 public interface ICartService {
     List<Cart> findAll();
 
-    Page<Cart> findAllPageAndSort(Pageable pagingSort);
+    Slice<Cart> findAllPageAndSort(Pageable pagingSort, boolean includeTotal);
 
     Cart findById(Long theId);
 
@@ -23,7 +25,9 @@ public interface ICartService {
 
     void deleteCart(Long theId);
 
-    Page<Cart> findByIdContaining(Long id, Pageable pagingSort);
+    Slice<Cart> findByIdContaining(Long id, Pageable pagingSort, boolean includeTotal);
 
-    Page<Cart> findByCustomerIdPageAndSort(Long customerId, Pageable pagingSort);
+    Slice<Cart> findByCustomerIdPageAndSort(Long customerId, Pageable pagingSort, boolean includeTotal);
+
+    KeysetSlice<Cart> findAllAfter(Long id, Long customerId, Sort.Order order, String after, int limit);
 }
@@ -1,6 +1,7 @@
 package com.cnpm.ecommerce.backend.app.service;
 
 import com.cnpm.ecommerce.backend.app.dto.CategoryDTO;
+import com.cnpm.ecommerce.backend.app.dto.CategorySummaryDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Category;
 import org.springframework.data.domain.Page;
@@ -10,9 +11,11 @@ import java.util.List;
 
 public interface ICategoryService {
 
-    List<Category> findAll();
+    List<CategorySummaryDTO> findAll();
 
-    Category findById(Long theId);
+    CategorySummaryDTO findById(Long theId);
+
+    byte[] findThumbnailById(Long theId);
 
     MessageResponse createCategory(CategoryDTO theCategoryDto);
 
@@ -3,8 +3,11 @@ package com.cnpm.ecommerce.backend.app.service;
 import com.cnpm.ecommerce.backend.app.dto.FeedbackDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.Feedback;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
@@ -22,7 +25,11 @@ public interface IFeedbackService {
 
     void deleteFeedback(Long theId);
 
-    Page<Feedback> findByRatingContaining(int rating, Pageable pagingSort);
+    Slice<Feedback> findAllByFilter(Integer rating, Integer minRating, Integer maxRating, Long productId,
+                                    Long customerId, Pageable pagingSort, boolean includeTotal);
 
-    Long count();
+    Long count(EntityCounterService.CountMode mode);
+
+    KeysetSlice<Feedback> findAllAfter(Integer rating, Integer minRating, Integer maxRating, Long productId,
+                                       Long customerId, Sort.Order order, String after, int limit);
 }
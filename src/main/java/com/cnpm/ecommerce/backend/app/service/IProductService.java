@@ -2,11 +2,16 @@ package com.cnpm.ecommerce.backend.app.service;
 
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.dto.ProductDTO;
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
 import com.cnpm.ecommerce.backend.app.entity.Product;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IProductService {
 
@@ -16,6 +21,8 @@ public interface IProductService {
 
     Product findById(Long theId);
 
+    byte[] findThumbnailById(Long theId);
+
     MessageResponse createProduct(ProductDTO theProductDto);
 
     MessageResponse updateProduct(Long theId, ProductDTO theProductDto);
@@ -25,7 +32,21 @@ public interface IProductService {
     Page<Product> findByNameContaining(String productName, Pageable pagingSort);
     
 
-    Long count();
+    Long count(EntityCounterService.CountMode mode);
 
     Page<Product> findByCategoryIdPageAndSort(Long categoryId, Pageable pagingSort);
+
+    Slice<ProductSummaryDTO> findAllSummaries(Pageable pagingSort, boolean includeTotal);
+
+    Slice<ProductSummaryDTO> findSummariesByNameContaining(String productName, Pageable pagingSort, boolean includeTotal);
+
+    Slice<ProductSummaryDTO> findSummariesByCategoryId(Long categoryId, Pageable pagingSort, boolean includeTotal);
+
+    Slice<ProductSummaryDTO> search(String keyword, Pageable paging, boolean includeTotal);
+
+    List<ProductSummaryDTO> suggest(String keyword, int limit);
+
+    void exportProducts(boolean includeThumbnails, Consumer<Product> action);
+
+    KeysetSlice<ProductSummaryDTO> findSummariesAfter(String productName, Long categoryId, Sort.Order order, String after, int limit);
 }
@@ -4,8 +4,10 @@ import com.cnpm.ecommerce.backend.app.dto.CustomerDTO;
 import com.cnpm.ecommerce.backend.app.dto.EmployeeDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.entity.User;
-import org.springframework.data.domain.Page;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
@@ -17,7 +19,7 @@ public interface IUserService extends UserDetailsService {
     EmployeeDTO findByIdEmployeeDto(Long theId);
 
 
-    MessageResponse createEmployee(EmployeeDTO theEmployee);
+    MessageResponse createEmployee(EmployeeDTO theEmployee, String encodedPassword);
 
     MessageResponse updateEmployee(Long theId, EmployeeDTO theEmployee);
 
@@ -29,28 +31,32 @@ public interface IUserService extends UserDetailsService {
 
     User findByIdEmployee(Long employeeId);
 
-    Page<User> findAllPageAndSortEmployee(Pageable pagingSort);
+    Slice<User> findAllPageAndSortEmployee(Pageable pagingSort, boolean includeTotal);
 
-    Page<User> findByUserNameContainingEmployee(String userName, Pageable pagingSort);
+    Slice<User> findByUserNameContainingEmployee(String userName, Pageable pagingSort, boolean includeTotal);
 
-    Long countEmployee();
+    Long countEmployee(EntityCounterService.CountMode mode);
 
     List<CustomerDTO> findAllCustomer();
 
     CustomerDTO findByIdCustomerDto(Long theId);
 
 
-    MessageResponse createCustomer(CustomerDTO theCustomer);
+    MessageResponse createCustomer(CustomerDTO theCustomer, String encodedPassword);
 
     MessageResponse updateCustomer(Long theId, CustomerDTO theCustomer);
 
     void deleteCustomer(Long theId);
 
-    Page<User> findAllPageAndSortCustomer(Pageable pagingSort);
+    Slice<User> findAllPageAndSortCustomer(Pageable pagingSort, boolean includeTotal);
 
-    Page<User> findByUserNameContainingCustomer(String userName, Pageable pagingSort);
+    Slice<User> findByUserNameContainingCustomer(String userName, Pageable pagingSort, boolean includeTotal);
 
-    Long countCustomer();
+    KeysetSlice<User> findCustomersAfter(String userName, Sort.Order order, String after, int limit);
+
+    Long countCustomer(EntityCounterService.CountMode mode);
 
     User findByIdCustomer(Long customerId);
+
+    byte[] findProfilePictureById(Long theId);
 }
@@ -0,0 +1,97 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification (signin, signup, account creation) on a fixed pool so that
+ * login and signup spikes can't tie up the Tomcat threads serving everything else. Saving the new
+ * account continues on a second pool of {@code app.password-hashing.persist-threads} threads, so
+ * database latency never holds a hashing thread and long-running MVC async work can't stall signups.
+ *
+ * The pool has {@code app.password-hashing.threads} threads (0 means one per CPU) and queues at most
+ * {@code app.password-hashing.queue-capacity} tasks; beyond that {@link #submit} throws
+ * {@link RejectedExecutionException}, which is answered with 503. The persistence pool queues at most
+ * {@code app.password-hashing.persist-queue-capacity} tasks and fails the signup the same way. Queue depth,
+ * active threads and task timings are published as {@code executor.*{name=passwordHashing}} and
+ * {@code executor.*{name=passwordHashingPersist}}, and hashing rejections as {@code app.password_hashing.rejected}.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Value("${app.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.password-hashing.persist-threads:4}")
+    private int persistThreads;
+
+    @Value("${app.password-hashing.persist-queue-capacity:100}")
+    private int persistQueueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("passwordEncoder")
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private ExecutorService executor;
+
+    private ExecutorService persistExecutor;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = boundedPool(poolSize, queueCapacity, "password-hashing-", "passwordHashing");
+        persistExecutor = boundedPool(persistThreads, persistQueueCapacity, "password-hashing-persist-", "passwordHashingPersist");
+        rejected = meterRegistry.counter("app.password_hashing.rejected");
+    }
+
+    private ExecutorService boundedPool(int poolSize, int capacity, String threadNamePrefix, String metricName) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), new CustomizableThreadFactory(threadNamePrefix),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, pool, metricName);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Hashes {@code rawPassword} on the pool and hands the hash to {@code then} on the persistence pool.
+     */
+    public <T> CompletableFuture<T> encode(String rawPassword, Function<String, T> then) {
+        return submit(() -> passwordEncoder.encode(rawPassword)).thenApplyAsync(then, persistExecutor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        persistExecutor.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Realigns the product rating aggregates with the feedback table once, by running
+ * {@code db/backfill-product-ratings.sql} at startup. Only enabled by {@code app.ratings.backfill-on-startup=true},
+ * since it scans every product and feedback row.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ratings.backfill-on-startup", havingValue = "true")
+public class ProductRatingBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRatingBackfill.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws IOException {
+        String sql;
+        try (InputStream script = new ClassPathResource("db/backfill-product-ratings.sql").getInputStream()) {
+            sql = StreamUtils.copyToString(script, StandardCharsets.UTF_8);
+        }
+
+        long start = System.currentTimeMillis();
+        int rows = jdbcTemplate.update(sql);
+        logger.info("Product rating backfill realigned {} products in {} ms", rows, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,456 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
+import com.cnpm.ecommerce.backend.app.entity.Product;
+import com.cnpm.ecommerce.backend.app.mapper.ProductMapper;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over product name, brand and descriptions for search-as-you-type.
+ *
+ * Every query token is matched as a prefix and all tokens must match (AND). A product scores the
+ * field weight of each matching term, doubled for an exact term match, and the top {@code limit}
+ * summaries are returned without touching the database. Disabled unless
+ * {@code app.search.in-memory.enabled=true}.
+ *
+ * Stock and rating change through bulk updates that never load the product, so those callers mark the
+ * product stale instead and its summary's stock and rating are read back every
+ * {@code app.search.in-memory.refresh-interval-ms}.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 4;
+
+    private static final int BRAND_WEIGHT = 2;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Value("${app.search.in-memory.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+
+    // incremental updates applied while a rebuild reads the catalog, replayed onto the new index before the swap
+    private List<Consumer<Index>> replayLog;
+
+    private final Set<Long> staleProductIds = ConcurrentHashMap.newKeySet();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            for (Product product : productRepository.findAll()) {
+                rebuilt.put(product.getId(), ProductMapper.mapToProductSummary(product), termsOf(product));
+            }
+        } catch (RuntimeException e) {
+            stopReplayLog(null);
+            throw e;
+        }
+
+        stopReplayLog(rebuilt);
+        logger.info("Product search index built with {} products and {} terms in {} ms",
+                rebuilt.size(), rebuilt.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public void indexAfterCommit(Product product) {
+        if (!enabled) {
+            return;
+        }
+
+        Long productId = product.getId();
+        ProductSummaryDTO summary = ProductMapper.mapToProductSummary(product);
+        Map<String, Integer> terms = termsOf(product);
+
+        CommonUtils.runAfterCommit(() -> apply(index -> index.put(productId, summary, terms)));
+    }
+
+    public void removeAfterCommit(Long productId) {
+        if (enabled) {
+            CommonUtils.runAfterCommit(() -> apply(index -> index.remove(productId)));
+        }
+    }
+
+    /**
+     * Category names are not indexed as terms, so a rename only swaps the summaries of that category's products.
+     */
+    public void renameCategoryAfterCommit(Long categoryId, String categoryName) {
+        if (enabled) {
+            CommonUtils.runAfterCommit(() -> apply(index -> index.renameCategory(categoryId, categoryName)));
+        }
+    }
+
+    // deleting a category cascades to its products
+    public void removeCategoryAfterCommit(Long categoryId) {
+        if (enabled) {
+            CommonUtils.runAfterCommit(() -> apply(index -> index.removeCategory(categoryId)));
+        }
+    }
+
+    public void markStaleAfterCommit(Collection<Long> productIds) {
+        if (enabled && !productIds.isEmpty()) {
+            List<Long> ids = new ArrayList<>(productIds);
+            CommonUtils.runAfterCommit(() -> staleProductIds.addAll(ids));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.in-memory.refresh-interval-ms:1000}")
+    @Transactional(readOnly = true)
+    public void refreshStale() {
+        if (staleProductIds.isEmpty()) {
+            return;
+        }
+
+        // ids are taken out before the read, so a change committed after it marks the product stale again
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> iterator = staleProductIds.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+
+        List<Object[]> rows = productRepository.findStockAndRatingByIdIn(ids);
+        apply(index -> rows.forEach(row -> index.refresh((Long) row[0], ((Number) row[1]).intValue(),
+                ((Number) row[2]).longValue(), ((Number) row[3]).longValue())));
+    }
+
+    private void apply(Consumer<Index> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (replayLog != null) {
+                replayLog.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopReplayLog(Index rebuilt) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                replayLog.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+            }
+            replayLog = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSummaryDTO> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> termsOf(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getBrand(), BRAND_WEIGHT);
+        addTerms(terms, product.getShortDescription(), DESCRIPTION_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : new HashSet<>(tokenize(text))) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class Index {
+
+        private final TreeMap<String, PostingList> postings = new TreeMap<>();
+
+        private final Map<Long, Integer> docByProductId = new HashMap<>();
+
+        // doc number -> summary and terms; a removed product leaves a null slot that the next put reuses
+        private final List<ProductSummaryDTO> summaries = new ArrayList<>();
+
+        private final List<String[]> docTerms = new ArrayList<>();
+
+        private final Deque<Integer> freeDocs = new ArrayDeque<>();
+
+        int size() {
+            return docByProductId.size();
+        }
+
+        void put(Long productId, ProductSummaryDTO summary, Map<String, Integer> terms) {
+            Integer doc = docByProductId.get(productId);
+            if (doc == null) {
+                doc = freeDocs.isEmpty() ? summaries.size() : freeDocs.pop();
+                docByProductId.put(productId, doc);
+                if (doc == summaries.size()) {
+                    summaries.add(summary);
+                    docTerms.add(null);
+                } else {
+                    summaries.set(doc, summary);
+                }
+            } else {
+                unlink(doc);
+                summaries.set(doc, summary);
+            }
+
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new PostingList()).add(doc, term.getValue());
+            }
+            docTerms.set(doc, terms.keySet().toArray(new String[0]));
+        }
+
+        void remove(Long productId) {
+            Integer doc = docByProductId.remove(productId);
+            if (doc != null) {
+                unlink(doc);
+                summaries.set(doc, null);
+                docTerms.set(doc, null);
+                freeDocs.push(doc);
+            }
+        }
+
+        void renameCategory(Long categoryId, String categoryName) {
+            for (int doc = 0; doc < summaries.size(); doc++) {
+                ProductSummaryDTO summary = summaries.get(doc);
+                if (summary != null && categoryId.equals(summary.getCategoryId())) {
+                    // summaries already handed to readers are never mutated
+                    ProductSummaryDTO renamed = copyOf(summary);
+                    renamed.setCategoryName(categoryName);
+                    summaries.set(doc, renamed);
+                }
+            }
+        }
+
+        void refresh(Long productId, int unitInStock, long ratingCount, long ratingSum) {
+            Integer doc = docByProductId.get(productId);
+            if (doc != null) {
+                ProductSummaryDTO refreshed = copyOf(summaries.get(doc));
+                refreshed.setUnitInStock(unitInStock);
+                refreshed.setRatingCount(ratingCount);
+                refreshed.setAverageRating(Product.averageRating(ratingCount, ratingSum));
+                summaries.set(doc, refreshed);
+            }
+        }
+
+        void removeCategory(Long categoryId) {
+            for (ProductSummaryDTO summary : new ArrayList<>(summaries)) {
+                if (summary != null && categoryId.equals(summary.getCategoryId())) {
+                    remove(summary.getId());
+                }
+            }
+        }
+
+        private void unlink(int doc) {
+            String[] terms = docTerms.get(doc);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null && list.remove(doc) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        List<ProductSummaryDTO> search(List<String> tokens, int limit) {
+            Scratch scratch = SCRATCH.get().ensureCapacity(summaries.size());
+            int[] scores = scratch.scores;
+            // matchedTokens[doc] == i means the doc matched every token before the i-th one
+            int[] matchedTokens = scratch.matchedTokens;
+            // only docs matching the first token can match them all, and only they need resetting afterwards
+            int candidateCount = 0;
+
+            try {
+                for (int i = 0; i < tokens.size(); i++) {
+                    String token = tokens.get(i);
+                    SortedMap<String, PostingList> matches = postings.subMap(token, token + Character.MAX_VALUE);
+
+                    for (Map.Entry<String, PostingList> match : matches.entrySet()) {
+                        int boost = match.getKey().length() == token.length() ? 2 : 1;
+                        PostingList list = match.getValue();
+
+                        for (int j = 0; j < list.size; j++) {
+                            int doc = list.docs[j];
+                            if (matchedTokens[doc] == i) {
+                                if (i == 0) {
+                                    scratch.addCandidate(candidateCount++, doc);
+                                }
+                                matchedTokens[doc] = i + 1;
+                                scores[doc] += list.weights[j] * boost;
+                            } else if (matchedTokens[doc] == i + 1) {
+                                scores[doc] += list.weights[j] * boost;
+                            }
+                        }
+                    }
+                }
+
+                PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                        (a, b) -> scores[a] != scores[b] ? Integer.compare(scores[a], scores[b]) : Integer.compare(b, a));
+                for (int c = 0; c < candidateCount; c++) {
+                    int doc = scratch.candidates[c];
+                    if (matchedTokens[doc] == tokens.size()) {
+                        top.offer(doc);
+                        if (top.size() > limit) {
+                            top.poll();
+                        }
+                    }
+                }
+
+                LinkedList<ProductSummaryDTO> results = new LinkedList<>();
+                while (!top.isEmpty()) {
+                    results.addFirst(summaries.get(top.poll()));
+                }
+                return new ArrayList<>(results);
+            } finally {
+                for (int c = 0; c < candidateCount; c++) {
+                    scores[scratch.candidates[c]] = 0;
+                    matchedTokens[scratch.candidates[c]] = 0;
+                }
+            }
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // per-thread score arrays reused across queries instead of two int[docCount] allocations per search
+    private static class Scratch {
+
+        private int[] scores = new int[0];
+
+        private int[] matchedTokens = new int[0];
+
+        private int[] candidates = new int[16];
+
+        Scratch ensureCapacity(int docCount) {
+            if (scores.length < docCount) {
+                int capacity = Math.max(docCount, scores.length * 2);
+                scores = new int[capacity];
+                matchedTokens = new int[capacity];
+            }
+            return this;
+        }
+
+        void addCandidate(int position, int doc) {
+            if (position == candidates.length) {
+                candidates = Arrays.copyOf(candidates, position * 2);
+            }
+            candidates[position] = doc;
+        }
+    }
+
+    private static ProductSummaryDTO copyOf(ProductSummaryDTO summary) {
+        ProductSummaryDTO copy = new ProductSummaryDTO();
+        copy.setId(summary.getId());
+        copy.setName(summary.getName());
+        copy.setBrand(summary.getBrand());
+        copy.setPrice(summary.getPrice());
+        copy.setUnitInStock(summary.getUnitInStock());
+        copy.setCategoryId(summary.getCategoryId());
+        copy.setCategoryName(summary.getCategoryName());
+        copy.setThumbnailUrl(summary.getThumbnailUrl());
+        copy.setRatingCount(summary.getRatingCount());
+        copy.setAverageRating(summary.getAverageRating());
+        return copy;
+    }
+
+    private static class PostingList {
+
+        private int[] docs = new int[4];
+
+        private int[] weights = new int[4];
+
+        private int size;
+
+        void add(int doc, int weight) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                weights[position] = weight;
+                return;
+            }
+
+            position = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            docs[position] = doc;
+            weights[position] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position < 0) {
+                return false;
+            }
+
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
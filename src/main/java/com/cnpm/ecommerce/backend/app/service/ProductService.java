@@ -2,22 +2,44 @@ package com.cnpm.ecommerce.backend.app.service;
 
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
 import com.cnpm.ecommerce.backend.app.dto.ProductDTO;
+import com.cnpm.ecommerce.backend.app.dto.ProductSummaryDTO;
 import com.cnpm.ecommerce.backend.app.entity.Category;
 import com.cnpm.ecommerce.backend.app.entity.Product;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
+import com.cnpm.ecommerce.backend.app.mapper.ProductMapper;
+import com.cnpm.ecommerce.backend.app.repository.CategoryRepository;
+import com.cnpm.ecommerce.backend.app.repository.KeysetRepository;
 import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Base64Utils;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -29,12 +51,33 @@ public class ProductService implements IProductService{
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CartPricingService cartPricingService;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private EntityCounterService entityCounterService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public List<Product> findAll() {
 
         List<Product> products = productRepository.findAll();
         for(Product product : products) {
-            product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
         }
 
         return products;
@@ -45,7 +88,7 @@ public class ProductService implements IProductService{
         Page<Product> productPage =  productRepository.findAll(pagingSort);
 
         for(Product product : productPage.getContent()) {
-            product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
         }
         return  productPage;
     }
@@ -62,6 +105,12 @@ public class ProductService implements IProductService{
 
   }
 
+    @Override
+    public byte[] findThumbnailById(Long theId) throws ResourceNotFoundException {
+        return productRepository.findThumbnailById(theId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found thumbnail of product with ID=" + theId));
+    }
+
     @Override
     public MessageResponse createProduct(ProductDTO theProductDto) {
 
@@ -74,11 +123,13 @@ public class ProductService implements IProductService{
         theProduct.setPrice(theProductDto.getPrice());
         theProduct.setThumbnailArr(Base64Utils.decodeFromString(theProductDto.getThumbnail()));
         theProduct.setUnitInStock(theProductDto.getUnitInStock());
-        theProduct.setCategory(categoryService.findById(theProductDto.getCategoryId()));
+        theProduct.setCategory(categoryReferenceOf(theProductDto.getCategoryId()));
         theProduct.setCreatedDate(new Date());
         theProduct.setCreatedBy(theProductDto.getCreatedBy());
 
         productRepository.save(theProduct);
+        productSearchIndex.indexAfterCommit(theProduct);
+        entityCounterService.incrementAfterCommit(EntityCounterService.Counter.PRODUCTS);
 
         return new MessageResponse("Create product successfully!", HttpStatus.CREATED, LocalDateTime.now());
     }
@@ -91,6 +142,8 @@ public class ProductService implements IProductService{
         if(!theProduct.isPresent()) {
             throw new ResourceNotFoundException("Not found product with ID=" + theId);
         } else {
+            hotStockCounters.resetAfterCommit(theId, theProductDto.getUnitInStock());
+
             theProduct.get().setName(theProductDto.getName());
             theProduct.get().setBrand(theProductDto.getBrand());
             theProduct.get().setShortDescription(theProductDto.getShortDescription());
@@ -98,11 +151,13 @@ public class ProductService implements IProductService{
             theProduct.get().setPrice(theProductDto.getPrice());
             theProduct.get().setThumbnailArr(Base64Utils.decodeFromString(theProductDto.getThumbnail()));
             theProduct.get().setUnitInStock(theProductDto.getUnitInStock());
-            theProduct.get().setCategory(categoryService.findById(theProductDto.getCategoryId()));
+            theProduct.get().setCategory(categoryReferenceOf(theProductDto.getCategoryId()));
             theProduct.get().setModifiedDate(new Date());
             theProduct.get().setModifiedBy(theProductDto.getModifiedBy());
 
             productRepository.save(theProduct.get());
+            productSearchIndex.indexAfterCommit(theProduct.get());
+            cartPricingService.evictPriceAfterCommit(theId);
         }
 
         return new MessageResponse("Update product successfully!" , HttpStatus.OK, LocalDateTime.now());
@@ -115,6 +170,10 @@ public class ProductService implements IProductService{
                 () -> new ResourceNotFoundException("Not found product with ID=" + theId));
 
         productRepository.delete(theProduct);
+        productSearchIndex.removeAfterCommit(theId);
+        cartPricingService.evictPriceAfterCommit(theId);
+        entityCounterService.decrementAfterCommit(EntityCounterService.Counter.PRODUCTS);
+        entityCounterService.invalidateAfterCommit(EntityCounterService.Counter.FEEDBACKS);
 
     }
 
@@ -125,31 +184,161 @@ public class ProductService implements IProductService{
         Page<Product> productPage =  productRepository.findByNameContainingIgnoreCase(productName, pagingSort);
 
         for(Product product : productPage.getContent()) {
-            product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
         }
         return  productPage;
     }
 
     @Override
-    public Long count() {
-        return productRepository.count();
+    public Long count(EntityCounterService.CountMode mode) {
+        return entityCounterService.count(EntityCounterService.Counter.PRODUCTS, mode);
     }
 
     @Override
     public Page<Product> findByCategoryIdPageAndSort(Long categoryId, Pageable pagingSort) {
 
-        Category category = categoryService.findById(categoryId);
+        categoryService.findById(categoryId);
 
-        if(category == null){
-            throw  new ResourceNotFoundException("Not found category with ID= " + categoryId);
-        } else {
+        Page<Product> productPage =  productRepository.findByCategoryId(categoryId, pagingSort);
+
+        for(Product product : productPage.getContent()) {
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+        }
+        return  productPage;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductSummaryDTO> findAllSummaries(Pageable pagingSort, boolean includeTotal) {
+        Slice<ProductSummaryDTO> productSlice = includeTotal
+                ? productRepository.findAllSummaries(pagingSort)
+                : productRepository.findAllSummarySlice(pagingSort);
+
+        for(ProductSummaryDTO product : productSlice.getContent()) {
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+        }
+        return productSlice;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductSummaryDTO> findSummariesByNameContaining(String productName, Pageable pagingSort, boolean includeTotal) {
+        Slice<ProductSummaryDTO> productSlice = includeTotal
+                ? productRepository.findSummariesByNameContaining(productName, pagingSort)
+                : productRepository.findSummarySliceByNameContaining(productName, pagingSort);
+
+        for(ProductSummaryDTO product : productSlice.getContent()) {
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+        }
+        return productSlice;
+    }
 
-            Page<Product> productPage =  productRepository.findByCategoryId(categoryId, pagingSort);
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductSummaryDTO> findSummariesByCategoryId(Long categoryId, Pageable pagingSort, boolean includeTotal) {
+
+        categoryService.findById(categoryId);
+
+        Slice<ProductSummaryDTO> productSlice = includeTotal
+                ? productRepository.findSummariesByCategoryId(categoryId, pagingSort)
+                : productRepository.findSummarySliceByCategoryId(categoryId, pagingSort);
+
+        for(ProductSummaryDTO product : productSlice.getContent()) {
+            product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+        }
+        return productSlice;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductSummaryDTO> search(String keyword, Pageable paging, boolean includeTotal) {
+
+        String tsQuery = toPrefixTsQuery(keyword);
+        if(tsQuery.isEmpty()) {
+            return Page.empty(paging);
+        }
+
+        Slice<Object[]> productSlice = includeTotal
+                ? productRepository.search(tsQuery, paging)
+                : productRepository.searchSlice(tsQuery, paging);
+
+        return productSlice.map(ProductMapper::mapToProductSummary);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummaryDTO> suggest(String keyword, int limit) {
+
+        if(productSearchIndex.isEnabled()) {
+            return productSearchIndex.search(keyword, limit);
+        }
+        return search(keyword, PageRequest.of(0, limit), false).getContent();
+    }
+
+    /**
+     * Hands every product to {@code action} in id order while the rows are still being read, detaching
+     * each one afterwards so the persistence context stays small however many products there are.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(boolean includeThumbnails, Consumer<Product> action) {
+
+        try (Stream<Product> products = includeThumbnails
+                ? productRepository.streamAllWithThumbnails()
+                : productRepository.streamAll()) {
+
+            products.forEach(product -> {
+                product.setThumbnailUrl(ProductMapper.thumbnailUrlOf(product.getId()));
+                if(includeThumbnails && product.getThumbnailArr() != null) {
+                    product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+                }
+                action.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetSlice<ProductSummaryDTO> findSummariesAfter(String productName, Long categoryId, Sort.Order order, String after, int limit) {
+
+        Specification<Product> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if(productName != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")), "%" + productName.toLowerCase() + "%"));
+            }
+            if(categoryId != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        // same columns as ProductRepository.SEARCH_SUMMARY_QUERY, mapped by ProductMapper.mapToProductSummary(Object[])
+        Function<Root<Product>, List<Selection<?>>> summaryColumns = root -> {
+            Join<Product, Category> category = root.join("category", JoinType.LEFT);
+            return Arrays.asList(root.get("id"), root.get("name"), root.get("brand"), root.get("price"),
+                    root.get("unitInStock"), category.get("id"), category.get("name"),
+                    root.get("ratingCount"), root.get("ratingSum"));
+        };
+
+        return keysetRepository.findSlice(Product.class, spec, summaryColumns, ProductMapper::mapToProductSummary,
+                order, after, limit);
+    }
+
+    // the cached lookup throws for unknown ids, the association itself only needs a reference
+    private Category categoryReferenceOf(Long categoryId) {
+        categoryService.findById(categoryId);
+        return categoryRepository.getById(categoryId);
+    }
 
-            for(Product product : productPage.getContent()) {
-                product.setThumbnail(Base64Utils.encodeToString(product.getThumbnailArr()));
+    private String toPrefixTsQuery(String keyword) {
+        // only letters and digits survive, so user input can never inject tsquery operators
+        StringJoiner tsQuery = new StringJoiner(" & ");
+        for(String token : keyword.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if(!token.isEmpty()) {
+                tsQuery.add(token + ":*");
             }
-            return  productPage;
         }
+        return tsQuery.toString();
     }
 }
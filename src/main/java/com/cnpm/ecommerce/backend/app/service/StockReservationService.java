@@ -0,0 +1,95 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.exception.OutOfStockException;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Reserves product stock with conditional updates, so concurrent checkouts can't oversell: a row is
+ * only decremented while enough stock is left, and a failed row rolls back the whole reservation.
+ * Rows are always updated in product id order so two carts sharing products can't deadlock.
+ * Products configured as hot are reserved through {@link HotStockCounters} instead.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockReservationService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    public void reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> rows = positiveInIdOrder(quantities, 1);
+        takeHotProducts(rows, (productId, quantity) -> {
+            if(!hotStockCounters.tryReserve(productId, quantity)) {
+                throw new OutOfStockException(productId);
+            }
+        });
+        if(rows.isEmpty()) {
+            return;
+        }
+
+        List<Long> insufficient = productRepository.decrementStock(rows);
+        if(!insufficient.isEmpty()) {
+            throw new OutOfStockException(insufficient.get(0));
+        }
+        productSearchIndex.markStaleAfterCommit(rows.keySet());
+    }
+
+    public void release(Map<Long, Integer> quantities) {
+        releaseRows(positiveInIdOrder(quantities, 1));
+    }
+
+    /**
+     * Reserves the positive and releases the negative quantity changes. Reservations go first
+     * so that a cart that runs out of stock fails before anything else is written.
+     */
+    public void adjust(Map<Long, Integer> deltas) {
+        reserve(deltas);
+
+        releaseRows(positiveInIdOrder(deltas, -1));
+    }
+
+    private void releaseRows(Map<Long, Integer> rows) {
+        takeHotProducts(rows, hotStockCounters::release);
+        if(!rows.isEmpty()) {
+            productRepository.incrementStock(rows);
+            productSearchIndex.markStaleAfterCommit(rows.keySet());
+        }
+    }
+
+    private void takeHotProducts(Map<Long, Integer> rows, BiConsumer<Long, Integer> action) {
+        Iterator<Map.Entry<Long, Integer>> iterator = rows.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<Long, Integer> row = iterator.next();
+            if(hotStockCounters.isHot(row.getKey())) {
+                action.accept(row.getKey(), row.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static Map<Long, Integer> positiveInIdOrder(Map<Long, Integer> quantities, int sign) {
+        Map<Long, Integer> rows = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if(quantity != null && quantity * sign > 0) {
+                rows.put(productId, quantity * sign);
+            }
+        });
+        return rows;
+    }
+}
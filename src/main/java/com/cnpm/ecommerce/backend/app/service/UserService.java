@@ -1,5 +1,6 @@
 package com.cnpm.ecommerce.backend.app.service;
 
+import com.cnpm.ecommerce.backend.app.config.CacheConfig;
 import com.cnpm.ecommerce.backend.app.dto.CustomerDTO;
 import com.cnpm.ecommerce.backend.app.dto.EmployeeDTO;
 import com.cnpm.ecommerce.backend.app.dto.MessageResponse;
@@ -7,13 +8,22 @@ import com.cnpm.ecommerce.backend.app.entity.Role;
 import com.cnpm.ecommerce.backend.app.entity.User;
 import com.cnpm.ecommerce.backend.app.exception.ResourceNotFoundException;
 import com.cnpm.ecommerce.backend.app.mapper.UserMapper;
+import com.cnpm.ecommerce.backend.app.repository.KeysetRepository;
 import com.cnpm.ecommerce.backend.app.repository.RoleRepository;
 import com.cnpm.ecommerce.backend.app.repository.UserRepository;
+import com.cnpm.ecommerce.backend.app.utils.CommonUtils;
+import com.cnpm.ecommerce.backend.app.utils.KeysetSlice;
 import com.cnpm.ecommerce.backend.app.utils.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -35,6 +45,15 @@ public class UserService implements IUserService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private KeysetRepository keysetRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityCounterService entityCounterService;
+
     @Autowired
     @Qualifier("passwordEncoder")
     private BCryptPasswordEncoder passwordEncoder;
@@ -77,7 +96,7 @@ public class UserService implements IUserService {
 
 
     @Override
-    public MessageResponse createEmployee(EmployeeDTO theEmployeeDto) {
+    public MessageResponse createEmployee(EmployeeDTO theEmployeeDto, String encodedPassword) {
 
         Boolean existEmployee = userRepository.existsByUserName(theEmployeeDto.getUserName());
 
@@ -89,7 +108,7 @@ public class UserService implements IUserService {
             theEmployee.setCreatedDate(new Date());
             theEmployee.setUserName(theEmployeeDto.getUserName());
             theEmployee.setName(theEmployeeDto.getName());
-            theEmployee.setPassword(passwordEncoder.encode(theEmployeeDto.getPassword()));
+            theEmployee.setPassword(encodedPassword);
             theEmployee.setEmail(theEmployeeDto.getEmail());
             theEmployee.setPhoneNumber(theEmployeeDto.getPhoneNumber());
             theEmployee.setAddress(theEmployeeDto.getAddress());
@@ -113,6 +132,7 @@ public class UserService implements IUserService {
 
 
             userRepository.save(theEmployee);
+            entityCounterService.incrementAfterCommit(EntityCounterService.Counter.EMPLOYEES);
 
             return new MessageResponse("Create employee successfully!", HttpStatus.ACCEPTED, LocalDateTime.now());
         }
@@ -145,6 +165,7 @@ public class UserService implements IUserService {
             theEmployee.get().setRoles(roles);
 
             userRepository.save(theEmployee.get());
+            evictPrincipalAfterCommit(theEmployee.get().getUserName());
         }
 
         return new MessageResponse("Updated employee successfully!", HttpStatus.OK, LocalDateTime.now());
@@ -159,6 +180,7 @@ public class UserService implements IUserService {
         } else {
             theEmployee.get().setEnabled(0);
             userRepository.save(theEmployee.get());
+            evictPrincipalAfterCommit(theEmployee.get().getUserName());
         }
     }
 
@@ -174,28 +196,32 @@ public class UserService implements IUserService {
 
 
     @Override
-    public Page<User> findAllPageAndSortEmployee(Pageable pagingSort) {
-        Page<User> employeePage =  userRepository.findByIsAccCustomer(false, pagingSort);
+    public Slice<User> findAllPageAndSortEmployee(Pageable pagingSort, boolean includeTotal) {
+        Slice<User> employeeSlice = includeTotal
+                ? userRepository.findByIsAccCustomer(false, pagingSort)
+                : userRepository.findSliceByIsAccCustomer(false, pagingSort);
 
-        for(User employee : employeePage.getContent()) {
-                employee.setProfilePicture(Base64Utils.encodeToString(employee.getProfilePictureArr()));
+        for(User employee : employeeSlice.getContent()) {
+                employee.setProfilePictureUrl(profilePictureUrlOf(employee));
         }
-        return  employeePage;
+        return  employeeSlice;
     }
 
     @Override
-    public Page<User> findByUserNameContainingEmployee(String userName, Pageable pagingSort) {
-        Page<User> employeePage =  userRepository.findByUserNameContainingAndIsAccCustomer(userName,false, pagingSort);
+    public Slice<User> findByUserNameContainingEmployee(String userName, Pageable pagingSort, boolean includeTotal) {
+        Slice<User> employeeSlice = includeTotal
+                ? userRepository.findByUserNameContainingAndIsAccCustomer(userName,false, pagingSort)
+                : userRepository.findSliceByUserNameContainingAndIsAccCustomer(userName, false, pagingSort);
 
-        for(User employee : employeePage.getContent()) {
-                employee.setProfilePicture(Base64Utils.encodeToString(employee.getProfilePictureArr()));
+        for(User employee : employeeSlice.getContent()) {
+                employee.setProfilePictureUrl(profilePictureUrlOf(employee));
         }
-        return  employeePage;
+        return  employeeSlice;
     }
 
     @Override
-    public Long countEmployee() {
-        return userRepository.countEmployee();
+    public Long countEmployee(EntityCounterService.CountMode mode) {
+        return entityCounterService.count(EntityCounterService.Counter.EMPLOYEES, mode);
     }
 
     @Override
@@ -229,7 +255,7 @@ public class UserService implements IUserService {
     }
 
     @Override
-    public MessageResponse createCustomer(CustomerDTO theCustomerDto) {
+    public MessageResponse createCustomer(CustomerDTO theCustomerDto, String encodedPassword) {
         Boolean existCustomer = userRepository.existsByUserName(theCustomerDto.getUserName());
 
         if(existCustomer == true){
@@ -240,7 +266,7 @@ public class UserService implements IUserService {
             theCustomer.setCreatedDate(new Date());
             theCustomer.setUserName(theCustomerDto.getUserName());
             theCustomer.setName(theCustomerDto.getName());
-            theCustomer.setPassword(passwordEncoder.encode(theCustomerDto.getPassword()));
+            theCustomer.setPassword(encodedPassword);
             theCustomer.setEmail(theCustomerDto.getEmail());
             theCustomer.setPhoneNumber(theCustomerDto.getPhoneNumber());
             theCustomer.setAddress(theCustomerDto.getAddress());
@@ -252,6 +278,7 @@ public class UserService implements IUserService {
             theCustomer.setRoles(roles);
 
             userRepository.save(theCustomer);
+            entityCounterService.incrementAfterCommit(EntityCounterService.Counter.CUSTOMERS);
 
             return new MessageResponse("Create customer successfully!", HttpStatus.ACCEPTED, LocalDateTime.now());
         }
@@ -276,6 +303,7 @@ public class UserService implements IUserService {
             theCustomer.get().setAccCustomer(true);
 
             userRepository.save(theCustomer.get());
+            evictPrincipalAfterCommit(theCustomer.get().getUserName());
         }
 
         return new MessageResponse("Updated customer successfully!", HttpStatus.OK, LocalDateTime.now());
@@ -290,32 +318,53 @@ public class UserService implements IUserService {
         } else {
             theCustomer.get().setEnabled(0);
             userRepository.save(theCustomer.get());
+            evictPrincipalAfterCommit(theCustomer.get().getUserName());
         }
     }
 
     @Override
-    public Page<User> findAllPageAndSortCustomer(Pageable pagingSort) {
-        Page<User> employeePage =  userRepository.findByIsAccCustomer(true,pagingSort);
+    public Slice<User> findAllPageAndSortCustomer(Pageable pagingSort, boolean includeTotal) {
+        Slice<User> customerSlice = includeTotal
+                ? userRepository.findByIsAccCustomer(true,pagingSort)
+                : userRepository.findSliceByIsAccCustomer(true, pagingSort);
 
-        for(User employee : employeePage.getContent()) {
-                employee.setProfilePicture(Base64Utils.encodeToString(employee.getProfilePictureArr()));
+        for(User customer : customerSlice.getContent()) {
+                customer.setProfilePictureUrl(profilePictureUrlOf(customer));
         }
-        return  employeePage;
+        return  customerSlice;
     }
 
     @Override
-    public Page<User> findByUserNameContainingCustomer(String userName, Pageable pagingSort) {
-        Page<User> employeePage =  userRepository.findByUserNameContainingAndIsAccCustomer(userName, true, pagingSort);
+    public Slice<User> findByUserNameContainingCustomer(String userName, Pageable pagingSort, boolean includeTotal) {
+        Slice<User> customerSlice = includeTotal
+                ? userRepository.findByUserNameContainingAndIsAccCustomer(userName, true, pagingSort)
+                : userRepository.findSliceByUserNameContainingAndIsAccCustomer(userName, true, pagingSort);
 
-        for(User employee : employeePage.getContent()) {
-                employee.setProfilePicture(Base64Utils.encodeToString(employee.getProfilePictureArr()));
+        for(User customer : customerSlice.getContent()) {
+                customer.setProfilePictureUrl(profilePictureUrlOf(customer));
         }
-        return  employeePage;
+        return  customerSlice;
     }
 
     @Override
-    public Long countCustomer() {
-        return userRepository.countCustomer();
+    @Transactional(readOnly = true)
+    public KeysetSlice<User> findCustomersAfter(String userName, Sort.Order order, String after, int limit) {
+
+        Specification<User> spec = (root, query, cb) -> userName == null
+                ? cb.isTrue(root.get("isAccCustomer"))
+                : cb.and(cb.isTrue(root.get("isAccCustomer")), cb.like(root.get("userName"), "%" + userName + "%"));
+
+        KeysetSlice<User> customerSlice = keysetRepository.findSlice(User.class, spec, order, after, limit);
+
+        for(User customer : customerSlice.getContent()) {
+            customer.setProfilePictureUrl(profilePictureUrlOf(customer));
+        }
+        return customerSlice;
+    }
+
+    @Override
+    public Long countCustomer(EntityCounterService.CountMode mode) {
+        return entityCounterService.count(EntityCounterService.Counter.CUSTOMERS, mode);
     }
 
     @Override
@@ -349,6 +398,13 @@ public class UserService implements IUserService {
     }
 
     @Override
+    public byte[] findProfilePictureById(Long theId) {
+        return userRepository.findProfilePictureById(theId).orElseThrow(
+                () -> new ResourceNotFoundException("Not found profile picture of user with ID=" + theId));
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.PRINCIPALS, key = "#username")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<User> user = userRepository.findByUserName(username);
 
@@ -358,4 +414,16 @@ public class UserService implements IUserService {
 
         return UserDetailsImpl.build(user.get());
     }
+
+    private void evictPrincipalAfterCommit(String username) {
+        Cache principals = cacheManager.getCache(CacheConfig.PRINCIPALS);
+        if(principals != null) {
+            CommonUtils.runAfterCommit(() -> principals.evict(username));
+        }
+    }
+
+    private String profilePictureUrlOf(User user) {
+        String resource = Boolean.TRUE.equals(user.getAccCustomer()) ? "customers" : "employees";
+        return "/api/" + resource + "/" + user.getId() + "/profilePicture";
+    }
 }
@@ -1,14 +1,32 @@
 package com.cnpm.ecommerce.backend.app.utils;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class CommonUtils {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     public static Sort.Direction getSortDirection(String sort) {
         return sort.contains("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
     }
@@ -36,4 +54,68 @@ public class CommonUtils {
 
         return pagingSort;
     }
+
+    public static Sort.Order getFirstOrder(String[] sort) {
+        return sortItem(0, 1, sort).getSort().iterator().next();
+    }
+
+    public static <T> ResponseEntity<List<T>> buildKeysetResponse(KeysetSlice<T> slice) {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getNextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    public static <T> ResponseEntity<List<T>> buildSliceResponse(Slice<T> slice) {
+
+        HttpHeaders headers = new HttpHeaders();
+        // only a Page carries a total, slices are fetched without the count(*) query
+        if (slice instanceof Page) {
+            headers.add(TOTAL_COUNT_HEADER, String.valueOf(((Page<T>) slice).getTotalElements()));
+        }
+
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    public static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static MediaType getImageMediaType(byte[] image) {
+        try {
+            String contentType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(image));
+            return contentType == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(contentType);
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    public static ResponseEntity<byte[]> buildImageResponse(byte[] image, String ifNoneMatch) {
+
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(image) + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(getImageMediaType(image))
+                .contentLength(image.length)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .body(image);
+    }
 }
@@ -1,12 +1,16 @@
 package com.cnpm.ecommerce.backend.app.utils;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
 
 @Component
@@ -19,6 +23,16 @@ public class JwtUtils {
 	
 	@Value("${bezkoder.app.jwtExpirationMs}")
 	private int jwtExpirationMs;
+
+	private Key signingKey;
+
+	private JwtParser jwtParser;
+
+	@PostConstruct
+	public void init() {
+		signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+		jwtParser = Jwts.parser().setSigningKey(signingKey);
+	}
 	
 	public String generateJwtToken(Authentication authentication) {
 			
@@ -28,7 +42,7 @@ public class JwtUtils {
 					.setSubject(userPrincipal.getUsername())
 					.setIssuedAt(new Date())
 					.setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-					.signWith(SignatureAlgorithm.HS512, jwtSecret)
+					.signWith(SignatureAlgorithm.HS512, signingKey)
 					.compact();
 	}
 
@@ -40,36 +54,35 @@ public class JwtUtils {
 				.setSubject(userPrincipal.getUsername())
 				.setIssuedAt(new Date())
 				.setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-				.signWith(SignatureAlgorithm.HS512, jwtSecret)
+				.signWith(SignatureAlgorithm.HS512, signingKey)
 				.compact();
 	}
 	
-	public String getUserNameFromJwtToken(String token) {
-		return Jwts.parser().setSigningKey(jwtSecret)
-				.parseClaimsJws(token).getBody().getSubject();
-				
-	}
-	
-	public boolean validateJwtToken(String authToken) {
+	public Claims parseClaims(String token) {
 		try {
-			Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-			return true;
-			
+			return jwtParser.parseClaimsJws(token).getBody();
+
 		} catch(SignatureException e) {
-			logger.error("Invalid JWT signature: {}", e.getMessage());
+			logger.warn("Invalid JWT signature: {}", e.getMessage());
 		} catch(MalformedJwtException e) {
-			logger.error("Invalid JWT token: {}", e.getMessage());
+			logger.warn("Invalid JWT token: {}", e.getMessage());
 		} catch (ExpiredJwtException e) {
-			logger.error("JWT token is expired: {}", e.getMessage());
+			logger.debug("JWT token is expired: {}", e.getMessage());
 		} catch (UnsupportedJwtException e){
-			logger.error("JWT token is unsupported: {}", e.getMessage());
+			logger.warn("JWT token is unsupported: {}", e.getMessage());
 		} catch(IllegalArgumentException e) {
-			logger.error("JWT claims string is unsupported: {}", e.getMessage());
-		} finally {
-			logger.error("Error");
+			logger.warn("JWT claims string is unsupported: {}", e.getMessage());
 		}
-		
-		return false;
+
+		return null;
+	}
+
+	public String getUserNameFromJwtToken(String token) {
+		return jwtParser.parseClaimsJws(token).getBody().getSubject();
+	}
+	
+	public boolean validateJwtToken(String authToken) {
+		return parseClaims(authToken) != null;
 	}
 
 }
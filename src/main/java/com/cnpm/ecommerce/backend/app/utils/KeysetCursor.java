@@ -0,0 +1,97 @@
+package com.cnpm.ecommerce.backend.app.utils;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque position of the last row returned by a keyset (seek) query.
+ *
+ * The token carries the sort property, its direction, the last sort key and the
+ * last id, so the next query can continue with "(sortKey, id) after (value, id)"
+ * instead of an OFFSET.
+ */
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private static final String NULL_VALUE = "\u0000";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long lastId;
+
+    private final String lastValue;
+
+    public KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static KeysetCursor fromLast(Object last, Long lastId, Sort.Order order) {
+        return fromLastValue(new BeanWrapperImpl(last).getPropertyValue(order.getProperty()), lastId, order);
+    }
+
+    public static KeysetCursor fromLastValue(Object value, Long lastId, Sort.Order order) {
+        return new KeysetCursor(order.getProperty(), order.getDirection(), lastId, encodeValue(value));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]),
+                    NULL_VALUE.equals(parts[3]) ? null : parts[3]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR
+                + (lastValue == null ? NULL_VALUE : lastValue);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            // Timestamp keeps the sub-millisecond part Postgres stores
+            Timestamp timestamp = value instanceof Timestamp ? (Timestamp) value : new Timestamp(((Date) value).getTime());
+            return timestamp.toString();
+        }
+        return value.toString();
+    }
+
+    public Sort.Order getOrder() {
+        return new Sort.Order(direction, property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
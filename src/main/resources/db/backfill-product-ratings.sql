@@ -0,0 +1,28 @@
+-- One-time backfill of the product rating aggregates, which FeedbackService keeps up to date afterwards. Realigns any
+-- row that drifted (e.g. feedback written before the columns existed); only rows whose aggregates differ are rewritten.
+-- Scans every product and feedback row, so it is not part of schema-postgresql.sql: run it once with psql, or start
+-- one instance with app.ratings.backfill-on-startup=true.
+UPDATE product p SET
+    rating_count = a.rating_count,
+    rating_sum = a.rating_sum,
+    rating_1_count = a.rating_1_count,
+    rating_2_count = a.rating_2_count,
+    rating_3_count = a.rating_3_count,
+    rating_4_count = a.rating_4_count,
+    rating_5_count = a.rating_5_count
+FROM (
+    SELECT pr.id,
+           count(f.id) AS rating_count,
+           coalesce(sum(f.rating), 0) AS rating_sum,
+           count(f.id) FILTER (WHERE f.rating = 1) AS rating_1_count,
+           count(f.id) FILTER (WHERE f.rating = 2) AS rating_2_count,
+           count(f.id) FILTER (WHERE f.rating = 3) AS rating_3_count,
+           count(f.id) FILTER (WHERE f.rating = 4) AS rating_4_count,
+           count(f.id) FILTER (WHERE f.rating = 5) AS rating_5_count
+    FROM product pr LEFT JOIN feedback f ON f.product_id = pr.id
+    GROUP BY pr.id
+) a
+WHERE p.id = a.id
+  AND (p.rating_count, p.rating_sum, p.rating_1_count, p.rating_2_count, p.rating_3_count, p.rating_4_count, p.rating_5_count)
+      IS DISTINCT FROM
+      (a.rating_count, a.rating_sum, a.rating_1_count, a.rating_2_count, a.rating_3_count, a.rating_4_count, a.rating_5_count);
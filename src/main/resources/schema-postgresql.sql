@@ -0,0 +1,13 @@
+-- Runs after Hibernate's ddl-auto=update (spring.jpa.defer-datasource-initialization), so every statement must be idempotent.
+
+-- Full-text search over the product catalog, weighted name > brand > short description > description.
+-- The 'simple' configuration only lowercases, which suits the Vietnamese catalog better than a stemming dictionary.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(brand, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(short_description, '')), 'C') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector);
@@ -0,0 +1,319 @@
+package com.cnpm.ecommerce.backend.app;
+
+import com.cnpm.ecommerce.backend.app.dto.FeedbackDTO;
+import com.cnpm.ecommerce.backend.app.dto.LoginDTO;
+import com.cnpm.ecommerce.backend.app.entity.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a catalog into an in-memory H2 database and drives the public API over HTTP, reporting throughput and
+ * p50/p99 latency per scenario. Excluded from the default build, run it with {@code mvn test -Pload-test}; the
+ * sizes can be changed with e.g. {@code -Dload.products=5000 -Dload.threads=32}.
+ *
+ * H2 runs in its default mode, its PostgreSQL mode rejects the {@code blob} columns Hibernate generates for
+ * thumbnails. Product full-text search is native Postgres SQL and isn't part of the scenarios.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.sql.init.mode=never",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "app.metrics.n-plus-one-threshold=1000"
+})
+class ApiLoadTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiLoadTests.class);
+
+    private static final String PASSWORD = "password";
+
+    @Value("${load.categories:10}")
+    private int categories;
+
+    @Value("${load.products:1000}")
+    private int products;
+
+    @Value("${load.customers:200}")
+    private int customers;
+
+    @Value("${load.thumbnail-bytes:20000}")
+    private int thumbnailBytes;
+
+    @Value("${load.threads:16}")
+    private int threads;
+
+    @Value("${load.requests:2000}")
+    private int requests;
+
+    @Value("${load.signin-requests:200}")
+    private int signinRequests;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    private final List<Long> customerIds = new ArrayList<>();
+
+    private final List<Long> cartIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> seedCatalog());
+        logger.info("Seeded {} categories, {} products and {} customers with carts and feedback in {} ms",
+                categories, products, customers, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Test
+    void scenarios() throws InterruptedException {
+        int pages = Math.max(1, products / 20);
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("GET /api/products", requests,
+                i -> get("/api/products?page=" + (i % pages) + "&limit=20")));
+        results.add(run("GET /api/products?categoryId", requests,
+                i -> get("/api/products?limit=20&categoryId=" + pick(categoryIds, i))));
+        results.add(run("GET /api/products/{id}", requests,
+                i -> get("/api/products/" + pick(productIds, i))));
+        results.add(run("GET /api/carts?customerId", requests,
+                i -> get("/api/carts?customerId=" + pick(customerIds, i))));
+        results.add(run("GET /api/carts/{id}", requests,
+                i -> get("/api/carts/" + pick(cartIds, i))));
+        results.add(run("GET /api/feedbacks?productId", requests,
+                i -> get("/api/feedbacks?productId=" + pick(productIds, i))));
+        results.add(run("POST /api/feedbacks", requests,
+                i -> restTemplate.postForEntity("/api/feedbacks", feedback(i), String.class)));
+        results.add(run("POST /api/auth/signin", signinRequests,
+                i -> restTemplate.postForEntity("/api/auth/signin", login(i % customers), String.class)));
+
+        logger.info(String.format("%n%-30s %8s %7s %10s %9s %9s", "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms"));
+        for (Result result : results) {
+            logger.info(result.toString());
+        }
+        for (Result result : results) {
+            assertThat(result.errors).as(result.name).isZero();
+        }
+    }
+
+    private void seedCatalog() {
+        Role customerRole = new Role();
+        customerRole.setCode("ROLE_CUSTOMER");
+        customerRole.setName("Customer");
+        entityManager.persist(customerRole);
+
+        Random random = new Random(42);
+        List<Category> categoryList = new ArrayList<>();
+        for (int c = 0; c < categories; c++) {
+            Category category = new Category();
+            category.setName("Category " + c);
+            category.setThumbnailArr(randomBytes(random, thumbnailBytes));
+            entityManager.persist(category);
+            categoryList.add(category);
+            categoryIds.add(category.getId());
+        }
+
+        for (int p = 0; p < products; p++) {
+            Product product = new Product();
+            product.setName("Product " + p);
+            product.setBrand("Brand " + (p % 25));
+            product.setShortDescription("Short description of product " + p);
+            product.setDescription("Description of product " + p);
+            product.setPrice(BigDecimal.valueOf(10 + p % 500));
+            product.setUnitInStock(1_000_000);
+            product.setThumbnailArr(randomBytes(random, thumbnailBytes));
+            product.setCategory(categoryList.get(p % categoryList.size()));
+            product.setCreatedDate(new Date());
+            entityManager.persist(product);
+            productIds.add(product.getId());
+        }
+        flushAndClear();
+
+        // hashing once keeps seeding fast, every customer shares the password
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        for (int u = 0; u < customers; u++) {
+            User customer = new User();
+            customer.setUserName("customer" + u);
+            customer.setEmail("customer" + u + "@example.com");
+            customer.setName("Customer " + u);
+            customer.setPassword(encodedPassword);
+            customer.setEnabled(1);
+            customer.setAccCustomer(true);
+            customer.setRoles(new HashSet<>(Collections.singletonList(entityManager.getReference(Role.class, customerRole.getId()))));
+            customer.setCreatedDate(new Date());
+            entityManager.persist(customer);
+            customerIds.add(customer.getId());
+
+            Cart cart = new Cart();
+            cart.setUser(customer);
+            cart.setAddress("Address " + u);
+            cart.setTotalCost(BigDecimal.ZERO);
+            entityManager.persist(cart);
+            cartIds.add(cart.getId());
+
+            for (int i = 0; i < 3; i++) {
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(entityManager.getReference(Product.class, pick(productIds, u * 3 + i)));
+                cartItem.setQuantity(1);
+                entityManager.persist(cartItem);
+
+                Feedback feedback = new Feedback();
+                feedback.setRating(1 + (u + i) % 5);
+                feedback.setProduct(entityManager.getReference(Product.class, pick(productIds, u * 7 + i)));
+                feedback.setUser(customer);
+                feedback.setCreatedDate(new Date());
+                entityManager.persist(feedback);
+            }
+            if (u % 50 == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Result run(String name, int count, IntFunction<ResponseEntity<String>> call) throws InterruptedException {
+        // warm up the JIT, caches and connection pool before measuring
+        execute(Math.max(1, count / 10), call, new long[Math.max(1, count / 10)], new AtomicInteger());
+
+        long[] latencies = new long[count];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        execute(count, call, latencies, errors);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(name, count, errors.get(), count / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private void execute(int count, IntFunction<ResponseEntity<String>> call, long[] latencies, AtomicInteger errors)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < count; i++) {
+            int request = i;
+            pool.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    if (!call.apply(request).getStatusCode().is2xxSuccessful()) {
+                        errors.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                }
+                latencies[request] = System.nanoTime() - start;
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+    }
+
+    private ResponseEntity<String> get(String url) {
+        return restTemplate.getForEntity(url, String.class);
+    }
+
+    private FeedbackDTO feedback(int i) {
+        FeedbackDTO feedback = new FeedbackDTO();
+        feedback.setRating(1 + i % 5);
+        feedback.setProductId(pick(productIds, i));
+        feedback.setCustomerId(pick(customerIds, i));
+        return feedback;
+    }
+
+    private static LoginDTO login(int customer) {
+        LoginDTO login = new LoginDTO();
+        login.setUserName("customer" + customer);
+        login.setPassword(PASSWORD);
+        return login;
+    }
+
+    private static Long pick(List<Long> ids, int i) {
+        return ids.get(Math.floorMod(i * 31, ids.size()));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.ceil(percentile * sortedNanos.length) - 1] / 1e6;
+    }
+
+    private static class Result {
+
+        private final String name;
+
+        private final int requests;
+
+        private final int errors;
+
+        private final double throughput;
+
+        private final double p50Ms;
+
+        private final double p99Ms;
+
+        Result(String name, int requests, int errors, double throughput, double p50Ms, double p99Ms) {
+            this.name = name;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s %8d %7d %10.1f %9.2f %9.2f", name, requests, errors, throughput, p50Ms, p99Ms);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.config.CacheConfig;
+import com.cnpm.ecommerce.backend.app.entity.*;
+import com.cnpm.ecommerce.backend.app.repository.KeysetRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never"
+})
+@Import({CartService.class, CartPricingService.class, StockReservationService.class, HotStockCounters.class, ProductSearchIndex.class, KeysetRepository.class, CacheConfig.class})
+class CartServiceQueryCountTests {
+
+    private static final int CARTS = 20;
+
+    private static final int ITEMS_PER_CART = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CartService cartService;
+
+    private Statistics statistics;
+
+    private Long firstCartId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Phones");
+        entityManager.persist(category);
+
+        Product[] products = new Product[ITEMS_PER_CART];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product();
+            products[i].setName("Product " + i);
+            products[i].setPrice(BigDecimal.TEN);
+            products[i].setCategory(category);
+            entityManager.persist(products[i]);
+        }
+
+        for (int c = 0; c < CARTS; c++) {
+            User customer = new User();
+            customer.setUserName("customer" + c);
+            entityManager.persist(customer);
+
+            Cart cart = new Cart();
+            cart.setUser(customer);
+            entityManager.persist(cart);
+            if (firstCartId == null) {
+                firstCartId = cart.getId();
+            }
+
+            for (Product product : products) {
+                CartItem cartItem = new CartItem();
+                cartItem.setCart(cart);
+                cartItem.setProduct(product);
+                cartItem.setQuantity(1);
+                entityManager.persist(cartItem);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfCartsLoadsItemsProductsAndCategoriesInBoundedQueries() {
+        Slice<Cart> cartPage = cartService.findAllPageAndSort(PageRequest.of(0, CARTS), true);
+
+        assertThat(cartPage).isInstanceOf(Page.class);
+        assertThat(touchGraph(cartPage.getContent())).isEqualTo(CARTS * ITEMS_PER_CART);
+        // page + count + items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void sliceOfCartsSkipsTheCountQuery() {
+        Slice<Cart> cartSlice = cartService.findAllPageAndSort(PageRequest.of(0, CARTS - 1), false);
+
+        assertThat(cartSlice).isNotInstanceOf(Page.class);
+        assertThat(cartSlice.hasNext()).isTrue();
+        assertThat(touchGraph(cartSlice.getContent())).isEqualTo((CARTS - 1) * ITEMS_PER_CART);
+        // slice + items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void singleCartLoadsInOneQuery() {
+        Cart cart = cartService.findById(firstCartId);
+
+        assertThat(touchGraph(Collections.singletonList(cart))).isEqualTo(ITEMS_PER_CART);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static int touchGraph(List<Cart> carts) {
+        int items = 0;
+        for (Cart cart : carts) {
+            cart.getUser().getUserName();
+            for (CartItem cartItem : cart.getCartItems()) {
+                cartItem.getProduct().getCategory().getName();
+                items++;
+            }
+        }
+        return items;
+    }
+}
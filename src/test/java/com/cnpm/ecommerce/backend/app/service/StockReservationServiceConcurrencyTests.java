@@ -0,0 +1,117 @@
+package com.cnpm.ecommerce.backend.app.service;
+
+import com.cnpm.ecommerce.backend.app.entity.Product;
+import com.cnpm.ecommerce.backend.app.exception.OutOfStockException;
+import com.cnpm.ecommerce.backend.app.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservationService.class, HotStockCounters.class, ProductSearchIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceConcurrencyTests {
+
+    private static final int STOCK = 50;
+
+    private static final int BUYERS = 400;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBuyersOfOneProductNeverOversell() throws Exception {
+        Long productId = saveProduct();
+
+        buyConcurrently(productId);
+
+        assertThat(productRepository.findById(productId).get().getUnitInStock()).isZero();
+    }
+
+    @Test
+    void concurrentBuyersOfOneHotProductNeverOversell() throws Exception {
+        Long productId = saveProduct();
+        ReflectionTestUtils.setField(hotStockCounters, "hotProductIds", Collections.singleton(productId));
+        hotStockCounters.load();
+
+        buyConcurrently(productId);
+
+        hotStockCounters.flush();
+        assertThat(productRepository.findById(productId).get().getUnitInStock()).isZero();
+    }
+
+    private Long saveProduct() {
+        Product product = new Product();
+        product.setName("Flash sale");
+        product.setPrice(BigDecimal.ONE);
+        product.setUnitInStock(STOCK);
+        return productRepository.save(product).getId();
+    }
+
+    private void buyConcurrently(Long productId) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService buyers = Executors.newFixedThreadPool(64);
+        List<Future<?>> purchases = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            purchases.add(buyers.submit(() -> {
+                start.await();
+                try {
+                    transaction.executeWithoutResult(status ->
+                            stockReservationService.reserve(Collections.singletonMap(productId, 1)));
+                    sold.incrementAndGet();
+                } catch (OutOfStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(60, TimeUnit.SECONDS);
+        }
+        buyers.shutdown();
+
+        assertThat(sold.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - STOCK);
+    }
+}